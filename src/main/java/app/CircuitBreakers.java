@@ -0,0 +1,224 @@
+package app;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Circuit breakers keyed by URL pattern, so a section that is down costs a few timeouts rather than one per link
+public class CircuitBreakers {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // [location.href, HTTP status (0 where Chrome does not report it), ms from navigation start to load] of the current document
+    static final String NAVIGATION_EXPRESSION =
+        "(function() {" +
+        "  var n = performance.getEntriesByType('navigation')[0];" +
+        "  if (!n) return [location.href, 0, -1];" +
+        "  var end = n.loadEventEnd || n.domContentLoadedEventEnd || n.responseEnd || performance.now();" +
+        "  return [location.href, n.responseStatus || 0, Math.round(end - n.startTime)];" +
+        "})()";
+
+    private final List<Pattern> patterns;
+    private final int window;
+    private final int minCalls;
+    private final double failureRate;
+    private final long slowMs;
+    private final long openMs;
+    private final long maxOpenMs;
+    private final Map<String, Breaker> breakers = new LinkedHashMap<>();
+
+    public CircuitBreakers(List<Pattern> patterns, int window, int minCalls, double failureRate,
+                           long slowMs, long openMs, long maxOpenMs) {
+        this.patterns = patterns;
+        this.window = Math.max(1, window);
+        this.minCalls = Math.max(1, Math.min(minCalls, this.window));
+        this.failureRate = failureRate;
+        this.slowMs = slowMs;
+        this.openMs = openMs;
+        this.maxOpenMs = Math.max(openMs, maxOpenMs);
+    }
+
+    public static CircuitBreakers fromProperties() {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String regex : System.getProperty("breaker.patterns", "").split(",")) {
+            if (!regex.isBlank()) {
+                patterns.add(Pattern.compile(regex.trim()));
+            }
+        }
+        return new CircuitBreakers(patterns,
+            Integer.getInteger("breaker.window", 10),
+            Integer.getInteger("breaker.minCalls", 3),
+            Integer.getInteger("breaker.failurePercent", 50) / 100.0,
+            Long.getLong("breaker.slowSeconds", 12) * 1000,
+            Long.getLong("breaker.openSeconds", 60) * 1000,
+            Long.getLong("breaker.maxOpenSeconds", 900) * 1000);
+    }
+
+    // The first matching -Dbreaker.patterns regex, otherwise host plus first path segment ("www.greenchef.com/menus")
+    public String keyOf(String url) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(url).find()) {
+                return pattern.pattern();
+            }
+        }
+        try {
+            URI uri = URI.create(url);
+            String section = PagePerformance.sectionOf(url);
+            return uri.getHost() + "/" + ("home".equals(section) ? "" : section);
+        } catch (Exception e) {
+            return url;
+        }
+    }
+
+    // False while the URL's circuit is open; once the cool-down passes a single probe is let through
+    public synchronized boolean allow(String url) {
+        Breaker breaker = breakers.computeIfAbsent(keyOf(url), Breaker::new);
+        long now = System.currentTimeMillis();
+        switch (breaker.state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now >= breaker.openUntil) {
+                    breaker.state = State.HALF_OPEN;
+                    breaker.probeInFlight = true;
+                    breaker.probeStarted = now;
+                    System.out.println("🔌 Probing " + breaker.key + " after " + (breaker.openFor / 1000) + " s open");
+                    return true;
+                }
+                break;
+            case HALF_OPEN:
+                // A probe whose outcome never came back (the caller gave up early) does not block forever
+                if (!breaker.probeInFlight || now - breaker.probeStarted > breaker.openFor) {
+                    breaker.probeInFlight = true;
+                    breaker.probeStarted = now;
+                    return true;
+                }
+                break;
+        }
+        breaker.skipped++;
+        System.out.println("🔌 Skipping " + url + ": circuit " + breaker.key + " is " + breaker.state
+                           + " (" + breaker.reason + ")");
+        return false;
+    }
+
+    // Slow successes count as failures: a section that answers in 30 s costs as much as one that times out
+    public synchronized void record(String url, boolean success, long elapsedMs) {
+        Breaker breaker = breakers.computeIfAbsent(keyOf(url), Breaker::new);
+        boolean slow = elapsedMs >= slowMs;
+        boolean failed = !success || slow;
+        String reason = !success ? "failed" : "slow " + elapsedMs + " ms";
+
+        if (breaker.state == State.HALF_OPEN) {
+            breaker.probeInFlight = false;
+            if (failed) {
+                breaker.openFor = Math.min(maxOpenMs, breaker.openFor * 2);
+                open(breaker, "probe " + reason);
+            } else {
+                breaker.state = State.CLOSED;
+                breaker.openFor = openMs;
+                breaker.reset();
+                System.out.println("🔌 Circuit " + breaker.key + " closed again");
+            }
+            return;
+        }
+
+        breaker.outcomes[breaker.next] = failed;
+        breaker.next = (breaker.next + 1) % window;
+        breaker.calls = Math.min(window, breaker.calls + 1);
+        int failures = 0;
+        for (int i = 0; i < breaker.calls; i++) {
+            if (breaker.outcomes[i]) {
+                failures++;
+            }
+        }
+        if (breaker.state == State.CLOSED && breaker.calls >= minCalls && failures >= failureRate * breaker.calls) {
+            open(breaker, failures + "/" + breaker.calls + " failed or slow, last " + reason);
+        }
+    }
+
+    // A click that navigated is a load of the page it landed on, so it counts towards that page's circuit as well;
+    // intendedUrl (the link's href, or "") stands in when Chrome only got as far as its error page
+    public void recordNavigation(WebDriver driver, String intendedUrl) {
+        try {
+            recordNavigation(((JavascriptExecutor) driver).executeScript("return " + NAVIGATION_EXPRESSION), intendedUrl);
+        } catch (Exception e) {
+            // Navigated again, or the window is gone: nothing to measure
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void recordNavigation(Object navigation, String intendedUrl) {
+        if (!(navigation instanceof List) || ((List<Object>) navigation).size() < 3) {
+            return;
+        }
+        List<Object> values = (List<Object>) navigation;
+        String url = String.valueOf(values.get(0));
+        if (url.startsWith("chrome-error:")) {
+            if (intendedUrl != null && !intendedUrl.isEmpty()) {
+                record(intendedUrl, false, 0);
+            }
+            return;
+        }
+        long status = ((Number) values.get(1)).longValue();
+        long elapsedMs = ((Number) values.get(2)).longValue();
+        if (elapsedMs >= 0 && url.startsWith("http")) {
+            record(url, status < 500, elapsedMs);
+        }
+    }
+
+    private void open(Breaker breaker, String reason) {
+        breaker.state = State.OPEN;
+        breaker.openUntil = System.currentTimeMillis() + breaker.openFor;
+        breaker.reason = reason;
+        breaker.opened++;
+        System.out.println("🔌 Circuit " + breaker.key + " opened for " + (breaker.openFor / 1000) + " s: " + reason);
+    }
+
+    public synchronized State state(String url) {
+        Breaker breaker = breakers.get(keyOf(url));
+        return breaker == null ? State.CLOSED : breaker.state;
+    }
+
+    public synchronized void printStats() {
+        List<Breaker> tripped = new ArrayList<>();
+        for (Breaker breaker : breakers.values()) {
+            if (breaker.opened > 0) {
+                tripped.add(breaker);
+            }
+        }
+        System.out.println("Circuit breakers: " + breakers.size() + " patterns, " + tripped.size() + " tripped");
+        for (Breaker breaker : tripped) {
+            System.out.println("  " + breaker.key + ": " + breaker.state + ", opened " + breaker.opened
+                               + "x, " + breaker.skipped + " navigations skipped (" + breaker.reason + ")");
+        }
+    }
+
+    private class Breaker {
+        final String key;
+        final boolean[] outcomes = new boolean[window];
+        int next = 0;
+        int calls = 0;
+        State state = State.CLOSED;
+        long openUntil = 0;
+        long openFor = openMs;
+        boolean probeInFlight = false;
+        long probeStarted = 0;
+        String reason = "";
+        int opened = 0;
+        int skipped = 0;
+
+        Breaker(String key) {
+            this.key = key;
+        }
+
+        void reset() {
+            next = 0;
+            calls = 0;
+        }
+    }
+}
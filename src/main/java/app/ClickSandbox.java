@@ -0,0 +1,388 @@
+package app;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchWindowException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.json.Json;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Each click runs on a fresh load of its source page, not a copy of the page's state at capture time: content that only
+// rendered after scrolling or other interaction may be missing there. Every sandbox page is settled and its overlays
+// closed before the element is looked up, as on the runners' own pages
+public class ClickSandbox {
+    // Builds a unique nth-of-type CSS path so the element can be found again in a fresh load of the page
+    private static final String CAPTURE_SCRIPT =
+        "var el = arguments[0], parts = [];" +
+        "while (el && el.nodeType === 1 && el !== document.documentElement) {" +
+        "  if (el.id && document.querySelectorAll('#' + CSS.escape(el.id)).length === 1) {" +
+        "    parts.unshift('#' + CSS.escape(el.id)); break;" +
+        "  }" +
+        "  var tag = el.tagName.toLowerCase(), i = 1, sib = el;" +
+        "  while ((sib = sib.previousElementSibling)) { if (sib.tagName === el.tagName) i++; }" +
+        "  parts.unshift(tag + ':nth-of-type(' + i + ')');" +
+        "  el = el.parentElement;" +
+        "}" +
+        "var link = arguments[0].closest('a[href]');" +
+        "return [parts.join(' > '), (arguments[0].innerText || arguments[0].textContent || '').trim(), link ? String(link.href) : ''];";
+
+    // Scrolls the element into view and reports its centre, and whether a real click there would reach it
+    private static final String LOCATE_EXPRESSION =
+        "(function(path) {" +
+        "  var el = document.querySelector(path);" +
+        "  if (!el) return null;" +
+        "  el.scrollIntoView({block: 'center'});" +
+        "  var r = el.getBoundingClientRect(), x = r.left + r.width / 2, y = r.top + r.height / 2;" +
+        "  var hit = document.elementFromPoint(x, y);" +
+        "  return {x: x, y: y, hit: !!hit && (hit === el || el.contains(hit))};" +
+        "})(%s)";
+
+    // Keeps a click's new window in this one: _blank targets and window.open() navigate the current document instead
+    private static final String SAME_WINDOW_SCRIPT =
+        "document.querySelectorAll('a[target], form[target]').forEach(function(el) { el.target = '_self'; });" +
+        "window.open = function(url) { if (url) location.href = url; return window; };";
+
+    private static final Json JSON = new Json();
+
+    private final WebDriver driver;
+    private final Waits waits;
+    private final PagePerformance performance;
+    private final int concurrency;
+    private final Duration settleTime;
+    private final CircuitBreakers breakers;
+    private TabPool tabs;
+    private boolean inWindow;
+
+    // breakers may be null; otherwise clicks into an open circuit are skipped and every click that navigated is recorded
+    public ClickSandbox(WebDriver driver, Waits waits, PagePerformance performance, CircuitBreakers breakers,
+                        int concurrency, Duration settleTime) {
+        this.driver = driver;
+        this.waits = waits;
+        this.performance = performance;
+        this.breakers = breakers;
+        this.concurrency = Math.max(1, concurrency);
+        this.settleTime = settleTime;
+    }
+
+    public static class ClickTask {
+        public final String sourceUrl;
+        public final String cssPath;
+        public final String text;
+        public final String actionType;
+        // The enclosing link's resolved href, "" for buttons
+        public final String href;
+
+        ClickTask(String sourceUrl, String cssPath, String text, String actionType, String href) {
+            this.sourceUrl = sourceUrl;
+            this.cssPath = cssPath;
+            this.text = text;
+            this.actionType = actionType;
+            this.href = href;
+        }
+    }
+
+    public static class ClickResult {
+        public final ClickTask task;
+        public final boolean success;
+        public final boolean javascriptClick;
+        public final String resultUrl;
+        public final String error;
+
+        ClickResult(ClickTask task, boolean success, boolean javascriptClick, String resultUrl, String error) {
+            this.task = task;
+            this.success = success;
+            this.javascriptClick = javascriptClick;
+            this.resultUrl = resultUrl;
+            this.error = error;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public ClickTask capture(WebElement element, String actionType) {
+        List<Object> captured = (List<Object>) ((JavascriptExecutor) driver).executeScript(CAPTURE_SCRIPT, element);
+        return new ClickTask(driver.getCurrentUrl(), String.valueOf(captured.get(0)), String.valueOf(captured.get(1)), actionType,
+                             String.valueOf(captured.get(2)));
+    }
+
+    // Runs later batches in pool tabs over CDP instead of switching WebDriver between windows
+    public void useTabs(TabPool tabs) {
+        this.tabs = tabs;
+    }
+
+    // Runs every click in the driver's own window, one after another. A HAR recording or replay only sees the
+    // window it attached to, so extra windows and pool tabs would go to the live network unrecorded
+    public void stayInWindow() {
+        this.inWindow = true;
+    }
+
+    public List<ClickResult> run(List<ClickTask> tasks) {
+        if (inWindow) {
+            return runInWindow(tasks);
+        }
+        if (tabs != null) {
+            return tabs.map(tasks, this::runInTab, (task, error) -> new ClickResult(task, false, false, "", describe(error)));
+        }
+        List<ClickResult> results = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i += concurrency) {
+            results.addAll(runBatch(tasks.subList(i, Math.min(tasks.size(), i + concurrency))));
+        }
+        return results;
+    }
+
+    private List<ClickResult> runBatch(List<ClickTask> batch) {
+        String sourceHandle = driver.getWindowHandle();
+        List<String> handles = new ArrayList<>();
+        // Windows a click opened itself (target=_blank, window.open), per task
+        List<List<String>> popups = new ArrayList<>();
+        List<ClickResult> results = new ArrayList<>();
+        boolean[] jsClick = new boolean[batch.size()];
+        String[] errors = new String[batch.size()];
+
+        try {
+            // Open every tab first so the page loads run concurrently inside the one Chrome process
+            for (int i = 0; i < batch.size(); i++) {
+                ClickTask task = batch.get(i);
+                popups.add(new ArrayList<>());
+                if (circuitOpen(task)) {
+                    errors[i] = "Circuit open for " + breakers.keyOf(task.href);
+                    handles.add(null);
+                    continue;
+                }
+                Set<String> before = new HashSet<>(driver.getWindowHandles());
+                ((JavascriptExecutor) driver).executeScript("window.open(arguments[0], '_blank');", task.sourceUrl);
+                Set<String> after = new HashSet<>(driver.getWindowHandles());
+                after.removeAll(before);
+                handles.add(after.isEmpty() ? null : after.iterator().next());
+            }
+
+            // Fire every click without waiting for its navigation to finish
+            for (int i = 0; i < batch.size(); i++) {
+                if (handles.get(i) == null) {
+                    if (errors[i] == null) {
+                        errors[i] = "Could not open sandbox tab";
+                    }
+                    continue;
+                }
+                Set<String> before = null;
+                try {
+                    driver.switchTo().window(handles.get(i));
+                    prepareWindow();
+                    WebElement target = driver.findElement(By.cssSelector(batch.get(i).cssPath));
+                    before = new HashSet<>(driver.getWindowHandles());
+                    try {
+                        target.click();
+                    } catch (NoSuchWindowException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        ((JavascriptExecutor) driver).executeScript("arguments[0].click();", target);
+                        jsClick[i] = true;
+                    }
+                } catch (Exception e) {
+                    errors[i] = describe(e);
+                }
+                if (before != null) {
+                    Set<String> opened = new HashSet<>(driver.getWindowHandles());
+                    opened.removeAll(before);
+                    popups.get(i).addAll(opened);
+                }
+            }
+
+            // One shared settle budget for the whole batch: tabs that already navigated cost nothing
+            long deadline = System.currentTimeMillis() + settleTime.toMillis();
+
+            for (int i = 0; i < batch.size(); i++) {
+                String resultUrl = "";
+                if (handles.get(i) != null) {
+                    try {
+                        driver.switchTo().window(handles.get(i));
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (errors[i] == null && remaining > 0 && popups.get(i).isEmpty()) {
+                            waits.urlChange(batch.get(i).sourceUrl, Duration.ofMillis(remaining));
+                        }
+                        resultUrl = driver.getCurrentUrl();
+                        measure(batch.get(i), resultUrl);
+                        driver.close();
+                    } catch (NoSuchWindowException e) {
+                        // The click closed its own tab (window.close()); nothing left to measure
+                    }
+                }
+                // A link that opens a new window is followed there instead
+                for (String popup : popups.get(i)) {
+                    try {
+                        driver.switchTo().window(popup);
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (remaining > 0) {
+                            waits.urlChange("about:blank", Duration.ofMillis(remaining));
+                        }
+                        String popupUrl = driver.getCurrentUrl();
+                        if (resultUrl.isEmpty() || resultUrl.equals(batch.get(i).sourceUrl)) {
+                            resultUrl = popupUrl;
+                        }
+                        measure(batch.get(i), popupUrl);
+                        driver.close();
+                    } catch (NoSuchWindowException e) {
+                        // Closed itself already
+                    }
+                }
+                results.add(new ClickResult(batch.get(i), errors[i] == null, jsClick[i], resultUrl,
+                                            errors[i] == null ? "" : errors[i]));
+            }
+        } finally {
+            List<String> leftover = new ArrayList<>(handles);
+            popups.forEach(leftover::addAll);
+            closeLeftoverTabs(leftover, sourceHandle);
+        }
+        return results;
+    }
+
+    // Reloads each task's page in the current window, clicks there and comes back to where the window started
+    private List<ClickResult> runInWindow(List<ClickTask> tasks) {
+        String startUrl = driver.getCurrentUrl();
+        List<ClickResult> results = new ArrayList<>();
+        try {
+            for (ClickTask task : tasks) {
+                if (circuitOpen(task)) {
+                    results.add(new ClickResult(task, false, false, "", "Circuit open for " + breakers.keyOf(task.href)));
+                    continue;
+                }
+                boolean jsClick = false;
+                try {
+                    driver.get(task.sourceUrl);
+                    prepareWindow();
+                    WebElement target = driver.findElement(By.cssSelector(task.cssPath));
+                    ((JavascriptExecutor) driver).executeScript(SAME_WINDOW_SCRIPT);
+                    try {
+                        target.click();
+                    } catch (Exception e) {
+                        ((JavascriptExecutor) driver).executeScript("arguments[0].click();", target);
+                        jsClick = true;
+                    }
+                    waits.urlChange(task.sourceUrl, settleTime);
+                    String resultUrl = driver.getCurrentUrl();
+                    measure(task, resultUrl);
+                    results.add(new ClickResult(task, true, jsClick, resultUrl, ""));
+                } catch (Exception e) {
+                    String error = describe(e);
+                    results.add(new ClickResult(task, false, jsClick, "", error));
+                }
+            }
+        } finally {
+            try {
+                driver.get(startUrl);
+                waits.documentReady(Duration.ofSeconds(15));
+            } catch (Exception e) {
+                System.err.println("⚠️ Could not return to " + startUrl + " after the click tests: " + e.getMessage());
+            }
+        }
+        return results;
+    }
+
+    // The same settle wait and overlay dismissal a runner gives its own page load
+    private void prepareWindow() {
+        waits.pageSettled(Duration.ofSeconds(10));
+        try {
+            if (Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(
+                    "return " + TabPool.clickFirstVisibleExpression(Main.OVERLAY_SELECTORS)))) {
+                waits.domQuiet(Duration.ofMillis(300), Duration.ofSeconds(2));
+            }
+        } catch (Exception e) {
+            // No overlay to close
+        }
+    }
+
+    // The current window is the only place the clicked-to document can be measured
+    private void measure(ClickTask task, String resultUrl) {
+        if (resultUrl.equals(task.sourceUrl) || "about:blank".equals(resultUrl)) {
+            return;
+        }
+        if (performance != null) {
+            performance.record(PagePerformance.sectionOf(resultUrl));
+        }
+        if (breakers != null) {
+            breakers.recordNavigation(driver, task.href);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClickResult runInTab(TabPool.Tab tab, ClickTask task) {
+        boolean jsClick = false;
+        if (circuitOpen(task)) {
+            return new ClickResult(task, false, false, "", "Circuit open for " + breakers.keyOf(task.href));
+        }
+        try {
+            tab.navigate(task.sourceUrl, Duration.ofSeconds(15));
+            try {
+                if (tab.clickFirstVisible(Main.OVERLAY_SELECTORS, Duration.ofSeconds(5))) {
+                    tab.settle(Duration.ofSeconds(2));
+                }
+            } catch (Exception e) {
+                // No overlay to close
+            }
+            String before = tab.url();
+            String path = JSON.toJson(task.cssPath);
+            Map<String, Object> target = (Map<String, Object>) tab.evaluate(String.format(LOCATE_EXPRESSION, path), Duration.ofSeconds(5));
+            if (target == null) {
+                return new ClickResult(task, false, false, before, "Element not found: " + task.cssPath);
+            }
+            if (Boolean.TRUE.equals(target.get("hit"))) {
+                tab.clickAt(((Number) target.get("x")).doubleValue(), ((Number) target.get("y")).doubleValue());
+            } else {
+                // Covered or zero-sized: same fallback as the WebDriver path
+                tab.evaluate("document.querySelector(" + path + ").click()", Duration.ofSeconds(5));
+                jsClick = true;
+            }
+
+            String resultUrl = tab.urlChange(before, settleTime);
+            if (resultUrl.isEmpty()) {
+                resultUrl = before;
+            } else if (performance != null || breakers != null) {
+                tab.settle(Duration.ofSeconds(10));
+                if (performance != null) {
+                    performance.record(PagePerformance.sectionOf(resultUrl), tab);
+                }
+                if (breakers != null) {
+                    try {
+                        breakers.recordNavigation(tab.evaluate(CircuitBreakers.NAVIGATION_EXPRESSION, Duration.ofSeconds(5)), task.href);
+                    } catch (Exception e) {
+                        // Navigated again: the click itself still worked
+                    }
+                }
+            }
+            return new ClickResult(task, true, jsClick, resultUrl, "");
+        } catch (Exception e) {
+            String error = describe(e);
+            return new ClickResult(task, false, jsClick, "", error);
+        }
+    }
+
+    // First line of the message, which for WebDriver errors is followed by pages of build and session details
+    private static String describe(Throwable e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage().split("\n")[0];
+    }
+
+    private boolean circuitOpen(ClickTask task) {
+        return breakers != null && !task.href.isEmpty() && !breakers.allow(task.href);
+    }
+
+    private void closeLeftoverTabs(List<String> handles, String sourceHandle) {
+        Set<String> open = driver.getWindowHandles();
+        for (String handle : handles) {
+            if (handle != null && open.contains(handle)) {
+                try {
+                    driver.switchTo().window(handle);
+                    driver.close();
+                } catch (NoSuchWindowException e) {
+                    // Closed by its own page in the meantime
+                }
+            }
+        }
+        driver.switchTo().window(sourceHandle);
+    }
+}
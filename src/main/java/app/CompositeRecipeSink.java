@@ -0,0 +1,89 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class CompositeRecipeSink implements RecipeSink {
+    private static final List<String> KNOWN_SINKS = List.of("csv", "sqlite", "lucene", "parquet");
+
+    private final List<RecipeSink> sinks;
+
+    public CompositeRecipeSink(List<RecipeSink> sinks) {
+        this.sinks = sinks;
+    }
+
+    // -Dsinks as trimmed lower-case names, so "CSV, SQLite" means what it says
+    static List<String> namesFromProperties() {
+        List<String> names = new ArrayList<>();
+        for (String name : System.getProperty("sinks", "csv").split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return names;
+    }
+
+    // -Dsinks=csv,sqlite,lucene,parquet picks the outputs; CSV alone is the default
+    public static RecipeSink fromProperties(Path csvPath, RunDatabase database) throws IOException {
+        List<String> names = namesFromProperties();
+        for (String name : names) {
+            if (!KNOWN_SINKS.contains(name)) {
+                System.err.println("⚠️ Unknown sink in -Dsinks: '" + name + "'");
+            }
+        }
+        List<RecipeSink> sinks = new ArrayList<>();
+        if (names.contains("csv")) {
+            sinks.add(new CsvRecipeSink(csvPath));
+        }
+        if (database != null) {
+            sinks.add(database.table("recipes", RecipeSchema.HEADER));
+        }
+        if (names.contains("lucene")) {
+            sinks.add(LuceneRecipeSink.fromProperties());
+        }
+        if (names.contains("parquet")) {
+            sinks.add(ParquetRecipeSink.fromProperties(csvPath));
+        }
+        if (sinks.isEmpty()) {
+            // A typo or an SQLite file that failed to open must not silently drop every row
+            System.err.println("⚠️ No usable sink in -Dsinks=" + System.getProperty("sinks") + ", writing CSV");
+            sinks.add(new CsvRecipeSink(csvPath));
+        }
+        RecipeSink outputs = RecipeMergeSink.wrapFromProperties(sinks.size() == 1 ? sinks.get(0) : new CompositeRecipeSink(sinks));
+        // Images wrap every output so they all see image_local_path (and the merge can key on the image's content hash)
+        // Normalisation comes first, so every output (and the merge) sees the typed columns
+        return RecipeNormalizer.wrapFromProperties(ImageDownloadSink.wrapFromProperties(outputs));
+    }
+
+    @Override
+    public synchronized void write(String[] row) throws IOException {
+        for (RecipeSink sink : sinks) {
+            sink.write(row);
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        for (RecipeSink sink : sinks) {
+            sink.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (RecipeSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -5,7 +5,6 @@ import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.*;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
 import org.openqa.selenium.support.ui.WebDriverWait;
@@ -22,15 +21,52 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class ComprehensiveLinkButtonTester {
     private static WebDriver driver;
     private static WebDriverWait wait;
+    private static HoverEngine hoverEngine;
+    private static Waits waits;
+    private static CircuitBreakers breakers = CircuitBreakers.fromProperties();
+    private static PagePerformance performance;
+    private static SessionHealth health;
+    private static int sessionsRecycled = 0;
     private static CSVWriter csvWriter;
+    private static NetworkArchive networkArchive;
+    private static RunDatabase database;
+    private static RecipeSink dbTable;
     private static int testCount = 0;
-    private static Set<String> visitedUrls = new HashSet<>();
+    private static Set<String> visitedUrls = SessionHealth.boundedSet(Integer.getInteger("visited.max", 10_000));
     private static String baseUrl = "https://www.greenchef.com/";
+    private static final Path outDir = Paths.get("output");
+    private static final String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+    // "http" verifies every href concurrently, "click" keeps the old hover-and-click walk
+    private static final String linkMode = System.getProperty("links.mode", "http");
+    private static final int linkConcurrency = Integer.getInteger("links.concurrency", 16);
+    private static ClickSandbox clickSandbox;
+    // Hovers queued by a phase and run together through HoverEngine.hoverAll, one script call per element
+    private static final List<HoverTask> pendingHovers = new ArrayList<>();
+
+    // Locators are shared with LocatorProfiler, which times them against the live page
+    static final List<By> CLICKABLE_SELECTORS = List.of(
+        By.cssSelector("a[href]"),
+        By.cssSelector("button"),
+        By.cssSelector("input[type='button']"),
+        By.cssSelector("input[type='submit']"),
+        By.cssSelector("[onclick]"),
+        By.cssSelector("[role='button']"),
+        By.cssSelector(".btn, .button"),
+        By.cssSelector("[data-test*='button']"),
+        By.cssSelector("[data-testid*='button']")
+    );
+    static final By SCRIPT_LINK_SELECTOR = By.cssSelector("a:not([href]), [onclick]:not([href]), [role='link']:not([href])");
+    static final By BUTTON_SELECTOR = By.cssSelector("button, input[type='button'], input[type='submit']");
+    static final By TEXT_INPUT_SELECTOR = By.cssSelector("input[type='text'], input[type='email'], input[type='search'], textarea");
+    static final By NAV_LINK_SELECTOR = By.cssSelector("nav a, .nav a, .navigation a, .menu a");
+    private static TabPool tabPool;
+    private static List<ClickSandbox.ClickTask> pendingClicks = new ArrayList<>();
 
     public static void main(String[] args) {
         System.out.println("=== Comprehensive Link & Button Testing ===");
@@ -45,22 +81,35 @@ public class ComprehensiveLinkButtonTester {
             
             // Test all elements on current page
             testAllClickableElements();
+            flushHoverTests();
+            flushClickTests();
+            recycleIfUnhealthy();
             
             // Find and test all links
             testAllLinks();
+            flushHoverTests();
+            flushClickTests();
+            recycleIfUnhealthy();
             
             // Find and test all buttons
             testAllButtons();
+            flushHoverTests();
+            flushClickTests();
+            recycleIfUnhealthy();
             
             // Test form elements
             testFormElements();
+            recycleIfUnhealthy();
             
             // Test navigation elements
             testNavigationElements();
+            flushHoverTests();
+            flushClickTests();
             
             System.out.println("\n=== TESTING COMPLETE ===");
             System.out.println("Total elements tested: " + testCount);
             System.out.println("Unique URLs visited: " + visitedUrls.size());
+            System.out.println("Browser sessions recycled: " + sessionsRecycled);
             
         } catch (Exception e) {
             System.err.println("Error during testing: " + e.getMessage());
@@ -70,9 +119,30 @@ public class ComprehensiveLinkButtonTester {
         }
     }
 
+    // Everything navigateToPage and the click tests use exists once this returns
     private static void setupDriver() {
         WebDriverManager.chromedriver().setup();
-        
+        startSession();
+        try {
+            Files.createDirectories(outDir);
+            performance = new PagePerformance(driver, outDir.resolve("comprehensive_link_button_perf_" + timestamp + ".csv"));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to setup performance output", e);
+        }
+        createClickSandbox();
+        System.out.println("✓ WebDriver initialized successfully");
+    }
+
+    // A HAR archive only covers the driver's window, so clicks then stay in it
+    private static void createClickSandbox() {
+        clickSandbox = new ClickSandbox(driver, waits, performance, breakers, Integer.getInteger("clicks.concurrency", 4), Duration.ofSeconds(2));
+        if (networkArchive != null) {
+            clickSandbox.stayInWindow();
+        }
+        attachTabPool();
+    }
+
+    private static void startSession() {
         ChromeOptions options = new ChromeOptions();
         options.addArguments("--window-size=1280,900");
         options.addArguments("--disable-blink-features=AutomationControlled");
@@ -82,24 +152,112 @@ public class ComprehensiveLinkButtonTester {
         
         driver = new ChromeDriver(options);
         wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+        if (networkArchive == null) {
+            networkArchive = NetworkArchive.attachFromProperties(driver, "link_button_tester");
+        } else {
+            networkArchive.attach(driver);
+        }
+        hoverEngine = new HoverEngine(driver);
+        waits = new Waits(driver);
+        health = SessionHealth.fromProperties(driver);
+    }
+
+    // -Dtabs runs queued click tests in CDP-driven tabs of this browser instead of switching windows
+    private static void attachTabPool() {
+        int tabs = TabPool.sizeFromProperties();
+        if (tabs <= 1) {
+            return;
+        }
+        // Pool tabs drive their own CDP sessions, which a HAR recording or replay does not see
+        if (networkArchive != null) {
+            System.out.println("⚠️ Tab mode needs HAR archives off, running click tests in this window");
+            return;
+        }
+        try {
+            tabPool = new TabPool(driver, tabs);
+            clickSandbox.useTabs(tabPool);
+        } catch (Exception e) {
+            System.err.println("⚠️ Tab pool unavailable, using sandbox windows: " + e.getMessage());
+        }
+    }
+
+    private static void closeTabPool() {
+        if (tabPool != null) {
+            tabPool.close();
+            tabPool = null;
+        }
+    }
+
+    // Only between phases, so no element handle or queued click outlives the session it came from
+    private static void recycleIfUnhealthy() {
+        String reason = health.check();
+        if (reason == null) {
+            return;
+        }
+        System.out.println("♻️  Recycling browser session: " + reason);
+        SessionHealth.SavedState state = null;
+        try {
+            state = SessionHealth.save(driver);
+            waits.printStats();
+            closeTabPool();
+        } catch (Exception e) {
+            System.err.println("❌ Error saving session state, recycling without it: " + e.getMessage());
+        }
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            // Already gone
+        }
         
-        System.out.println("✓ WebDriver initialized successfully");
+        // The old browser is gone, so a session that will not start ends the run instead of failing every later phase
+        startSessionWithRetries(3);
+        try {
+            performance.attach(driver);
+            createClickSandbox();
+            if (state != null) {
+                SessionHealth.restore(driver, state, baseUrl, waits);
+            }
+            closeOverlays();
+            sessionsRecycled++;
+            System.out.println("✓ Fresh session on " + driver.getCurrentUrl() + " (" + health.describe() + ")");
+        } catch (Exception e) {
+            System.err.println("❌ Error restoring session: " + e.getMessage());
+        }
+    }
+
+    private static void startSessionWithRetries(int attempts) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                startSession();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= attempts) {
+                    throw new IllegalStateException("No fresh browser session after " + attempts + " attempts", e);
+                }
+                System.err.println("⚠️ Fresh session failed to start (attempt " + attempt + "): " + e.getMessage());
+                try {
+                    Thread.sleep(2000L * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while restarting the browser", e);
+                }
+            }
+        }
     }
 
     private static void setupOutputFiles() {
         try {
-            Path outDir = Paths.get("output");
-            if (!Files.exists(outDir)) {
-                Files.createDirectories(outDir);
-            }
-            
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
             Path csvPath = outDir.resolve("comprehensive_link_button_test_" + timestamp + ".csv");
             
             csvWriter = new CSVWriter(new FileWriter(csvPath.toFile()));
             String[] header = {"test_id", "element_type", "action", "element_text", "element_url", 
-                              "success", "error_message", "current_url", "timestamp"};
+                              "success", "error_message", "current_url", "timestamp",
+                              "http_status", "latency_ms", "final_url"};
             csvWriter.writeNext(header);
+            database = RunDatabase.fromProperties("link_button_tester");
+            if (database != null) {
+                dbTable = database.table("link_tests", header);
+            }
             
             System.out.println("✓ Output file configured: " + csvPath.toAbsolutePath());
         } catch (IOException e) {
@@ -114,15 +272,27 @@ public class ComprehensiveLinkButtonTester {
                 return;
             }
             
+            if (!breakers.allow(url)) {
+                return;
+            }
+            
             System.out.println("🌐 Navigating to: " + url);
-            driver.get(url);
-            wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+            long start = System.currentTimeMillis();
+            try {
+                driver.get(url);
+                wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+            } catch (Exception e) {
+                breakers.record(url, false, System.currentTimeMillis() - start);
+                throw e;
+            }
+            breakers.record(url, true, System.currentTimeMillis() - start);
+            waits.pageSettled(Duration.ofSeconds(10));
+            performance.record(PagePerformance.sectionOf(url));
             
             // Handle overlays and popups
             closeOverlays();
             
             visitedUrls.add(url);
-            Thread.sleep(2000); // Allow page to settle
             
         } catch (Exception e) {
             System.err.println("❌ Error navigating to " + url + ": " + e.getMessage());
@@ -132,29 +302,17 @@ public class ComprehensiveLinkButtonTester {
     private static void testAllClickableElements() {
         System.out.println("\n--- Testing All Clickable Elements ---");
         
-        // Find all clickable elements
-        List<By> clickableSelectors = List.of(
-            By.cssSelector("a[href]"),
-            By.cssSelector("button"),
-            By.cssSelector("input[type='button']"),
-            By.cssSelector("input[type='submit']"),
-            By.cssSelector("[onclick]"),
-            By.cssSelector("[role='button']"),
-            By.cssSelector(".btn, .button"),
-            By.cssSelector("[data-test*='button']"),
-            By.cssSelector("[data-testid*='button']")
-        );
-        
         Set<String> testedElements = new HashSet<>();
+        PageModel model = PageModel.capture(driver);
         
-        for (By selector : clickableSelectors) {
+        for (By selector : CLICKABLE_SELECTORS) {
             try {
-                List<WebElement> elements = driver.findElements(selector);
+                List<WebElement> elements = model.find(selector);
                 System.out.println("Found " + elements.size() + " elements with selector: " + selector);
                 
                 for (WebElement element : elements) {
                     try {
-                        if (element.isDisplayed() && element.isEnabled()) {
+                        if (model.isVisible(element) && model.isEnabled(element)) {
                             String elementId = getElementIdentifier(element);
                             if (!testedElements.contains(elementId)) {
                                 testElement(element);
@@ -174,16 +332,81 @@ public class ComprehensiveLinkButtonTester {
     private static void testAllLinks() {
         System.out.println("\n--- Testing All Links ---");
         
+        // HTTP verification bypasses the browser, so a replayed run falls back to clicking
+        if ("http".equals(linkMode) && System.getProperty("har.replay") == null) {
+            verifyAllLinksOverHttp();
+            testScriptDrivenLinks();
+        } else {
+            testAllLinksByClicking();
+        }
+    }
+
+    private static void verifyAllLinksOverHttp() {
+        LinkVerifier verifier = new LinkVerifier(linkConcurrency, Duration.ofSeconds(10));
+        try {
+            Map<String, String> links = LinkVerifier.collectLinks(driver);
+            System.out.println("Found " + links.size() + " unique links to verify over HTTP");
+            
+            long start = System.currentTimeMillis();
+            List<LinkVerifier.LinkResult> results = verifier.verifyAll(links);
+            long elapsed = System.currentTimeMillis() - start;
+            
+            String currentUrl = driver.getCurrentUrl();
+            int failures = 0;
+            for (LinkVerifier.LinkResult result : results) {
+                if (!result.isSuccess()) {
+                    failures++;
+                    System.out.println("  ❌ " + result.status + " " + result.href + " " + result.error);
+                }
+                logTest("link", "HTTP verify", result.text, result.href, result.isSuccess(), result.error, currentUrl,
+                        result.status == 0 ? "" : String.valueOf(result.status),
+                        String.valueOf(result.latencyMs), result.finalUrl);
+            }
+            
+            System.out.println("✓ Verified " + results.size() + " links in " + elapsed + " ms (" + failures + " failed)");
+        } catch (Exception e) {
+            System.out.println("❌ Error in HTTP link verification: " + e.getMessage());
+        } finally {
+            verifier.shutdown();
+        }
+    }
+
+    private static void testScriptDrivenLinks() {
+        try {
+            // Only elements without an href need a real browser click
+            PageModel model = PageModel.capture(driver);
+            List<WebElement> scriptLinks = model.find(SCRIPT_LINK_SELECTOR);
+            System.out.println("Found " + scriptLinks.size() + " script-driven links to click");
+            
+            for (WebElement link : scriptLinks) {
+                try {
+                    if (model.isVisible(link) && model.isEnabled(link) && isSafeToClick(link)) {
+                        System.out.println("🔗 Testing script-driven link: '" + model.text(link) + "'");
+                        testClickAction(link, "Script link click");
+                    }
+                } catch (StaleElementReferenceException e) {
+                    System.out.println("  - Link became stale, skipping");
+                } catch (Exception e) {
+                    System.out.println("  - Error testing link: " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Error in script-driven link testing: " + e.getMessage());
+        }
+    }
+
+    private static void testAllLinksByClicking() {
         try {
-            List<WebElement> links = driver.findElements(By.cssSelector("a[href]"));
+            PageModel model = PageModel.capture(driver);
+            List<WebElement> links = model.find(By.cssSelector("a[href]"));
             System.out.println("Found " + links.size() + " links to test");
             
             for (int i = 0; i < Math.min(links.size(), 20); i++) { // Limit to 20 links to avoid infinite loops
                 WebElement link = links.get(i);
                 try {
-                    if (link.isDisplayed() && link.isEnabled()) {
+                    if (model.isVisible(link) && model.isEnabled(link)) {
                         String href = link.getAttribute("href");
-                        String linkText = link.getText().trim();
+                        String linkText = model.text(link);
                         
                         if (href != null && !href.isEmpty() && 
                             (href.startsWith("https://www.greenchef.com") || href.startsWith("/"))) {
@@ -191,11 +414,11 @@ public class ComprehensiveLinkButtonTester {
                             System.out.println("🔗 Testing link: '" + linkText + "' -> " + href);
                             
                             // Test hover action
-                            testHoverAction(link, "Link hover");
+                            testHoverAction(link, "Link hover", linkText);
                             
                             // Test click if it's a GreenChef internal link
                             if (href.startsWith("https://www.greenchef.com") && !visitedUrls.contains(href)) {
-                                testClickAction(link, "Link click", href);
+                                testClickAction(link, "Link click");
                             }
                         }
                     }
@@ -214,23 +437,24 @@ public class ComprehensiveLinkButtonTester {
         System.out.println("\n--- Testing All Buttons ---");
         
         try {
-            List<WebElement> buttons = driver.findElements(By.cssSelector("button, input[type='button'], input[type='submit']"));
+            PageModel model = PageModel.capture(driver);
+            List<WebElement> buttons = model.find(BUTTON_SELECTOR);
             System.out.println("Found " + buttons.size() + " buttons to test");
             
             for (WebElement button : buttons) {
                 try {
-                    if (button.isDisplayed() && button.isEnabled()) {
-                        String buttonText = button.getText().trim();
+                    if (model.isVisible(button) && model.isEnabled(button)) {
+                        String buttonText = model.text(button);
                         String buttonType = button.getAttribute("type");
                         
                         System.out.println("🔘 Testing button: '" + buttonText + "' (type: " + buttonType + ")");
                         
                         // Test hover action
-                        testHoverAction(button, "Button hover");
+                        testHoverAction(button, "Button hover", buttonText);
                         
                         // Test click action (be careful with form submissions)
                         if (isSafeToClick(button)) {
-                            testClickAction(button, "Button click", null);
+                            testClickAction(button, "Button click");
                         } else {
                             System.out.println("  - Skipping click (potentially unsafe)");
                             logTest("button", "click_skipped", buttonText, "", false, "Potentially unsafe to click", driver.getCurrentUrl());
@@ -252,11 +476,12 @@ public class ComprehensiveLinkButtonTester {
         
         try {
             // Test input fields
-            List<WebElement> inputs = driver.findElements(By.cssSelector("input[type='text'], input[type='email'], input[type='search'], textarea"));
+            PageModel model = PageModel.capture(driver);
+            List<WebElement> inputs = model.find(TEXT_INPUT_SELECTOR);
             
             for (WebElement input : inputs) {
                 try {
-                    if (input.isDisplayed() && input.isEnabled()) {
+                    if (model.isVisible(input) && model.isEnabled(input)) {
                         String inputType = input.getAttribute("type");
                         String placeholder = input.getAttribute("placeholder");
                         
@@ -285,10 +510,10 @@ public class ComprehensiveLinkButtonTester {
             }
             
             // Test select dropdowns
-            List<WebElement> selects = driver.findElements(By.cssSelector("select"));
+            List<WebElement> selects = model.find(By.cssSelector("select"));
             for (WebElement selectElement : selects) {
                 try {
-                    if (selectElement.isDisplayed() && selectElement.isEnabled()) {
+                    if (model.isVisible(selectElement) && model.isEnabled(selectElement)) {
                         Select select = new Select(selectElement);
                         List<WebElement> options = select.getOptions();
                         
@@ -316,21 +541,22 @@ public class ComprehensiveLinkButtonTester {
         
         try {
             // Test navigation menus
-            List<WebElement> navItems = driver.findElements(By.cssSelector("nav a, .nav a, .navigation a, .menu a"));
+            PageModel model = PageModel.capture(driver);
+            List<WebElement> navItems = model.find(NAV_LINK_SELECTOR);
             
             for (WebElement navItem : navItems) {
                 try {
-                    if (navItem.isDisplayed() && navItem.isEnabled()) {
-                        String navText = navItem.getText().trim();
+                    if (model.isVisible(navItem) && model.isEnabled(navItem)) {
+                        String navText = model.text(navItem);
                         String href = navItem.getAttribute("href");
                         
                         if (!navText.isEmpty() && href != null && href.startsWith("https://www.greenchef.com")) {
                             System.out.println("🧭 Testing navigation: '" + navText + "'");
                             
-                            testHoverAction(navItem, "Navigation hover");
+                            testHoverAction(navItem, "Navigation hover", navText);
                             
                             if (!visitedUrls.contains(href)) {
-                                testClickAction(navItem, "Navigation click", href);
+                                testClickAction(navItem, "Navigation click");
                             }
                         }
                     }
@@ -353,13 +579,12 @@ public class ComprehensiveLinkButtonTester {
             System.out.println("🧪 Testing " + tagName + ": '" + text + "'");
             
             // Test hover
-            testHoverAction(element, tagName + " hover");
+            testHoverAction(element, tagName + " hover", text);
             
             // Test click if it's a link or button
             if ("a".equals(tagName) || "button".equals(tagName)) {
-                String href = element.getAttribute("href");
                 if (isSafeToClick(element)) {
-                    testClickAction(element, tagName + " click", href);
+                    testClickAction(element, tagName + " click");
                 }
             }
             
@@ -368,62 +593,90 @@ public class ComprehensiveLinkButtonTester {
         }
     }
 
-    private static void testHoverAction(WebElement element, String actionType) {
+    private static class HoverTask {
+        final WebElement element;
+        final String actionType;
+        final String text;
+
+        HoverTask(WebElement element, String actionType, String text) {
+            this.element = element;
+            this.actionType = actionType;
+            this.text = text;
+        }
+    }
+
+    // text is what the phase already read from the PageModel, so logging needs no getText() round trip
+    private static void testHoverAction(WebElement element, String actionType, String text) {
+        pendingHovers.add(new HoverTask(element, actionType, text));
+    }
+
+    private static void flushHoverTests() {
+        if (pendingHovers.isEmpty()) {
+            return;
+        }
+        
+        System.out.println("🖱️  Running " + pendingHovers.size() + " queued hover tests");
+        try {
+            List<WebElement> elements = new ArrayList<>();
+            for (HoverTask task : pendingHovers) {
+                elements.add(task.element);
+            }
+            List<HoverEngine.HoverResult> results = hoverEngine.hoverAll(elements);
+            String pageUrl = driver.getCurrentUrl();
+            for (int i = 0; i < results.size(); i++) {
+                HoverTask task = pendingHovers.get(i);
+                HoverEngine.HoverResult result = results.get(i);
+                if (result.success) {
+                    System.out.println("  ✓ Hover successful: '" + task.text + "' (" + result.describeEffect() + ")");
+                    logTest("hover", task.actionType, task.text, result.describeEffect(), true, "", pageUrl);
+                } else {
+                    System.out.println("  ❌ Hover failed: '" + task.text + "' " + result.error);
+                    logTest("hover", task.actionType, task.text, "", false, result.error, pageUrl);
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("❌ Error running hover tests: " + e.getMessage());
+        } finally {
+            pendingHovers.clear();
+        }
+    }
+
+    private static void testClickAction(WebElement element, String actionType) {
         try {
-            Actions actions = new Actions(driver);
-            actions.moveToElement(element).perform();
-            System.out.println("  ✓ Hover successful");
-            logTest("hover", actionType, element.getText(), "", true, "", driver.getCurrentUrl());
-            Thread.sleep(500);
+            // Queue the click so it runs in a throwaway tab and the source page stays intact
+            pendingClicks.add(clickSandbox.capture(element, actionType));
         } catch (Exception e) {
-            System.out.println("  ❌ Hover failed: " + e.getMessage());
-            logTest("hover", actionType, element.getText(), "", false, e.getMessage(), driver.getCurrentUrl());
+            System.out.println("  ❌ Click test failed: " + e.getMessage());
+            logTest("click", actionType, "", "", false, e.getMessage(), driver.getCurrentUrl());
         }
     }
 
-    private static void testClickAction(WebElement element, String actionType, String expectedUrl) {
+    private static void flushClickTests() {
+        if (pendingClicks.isEmpty()) {
+            return;
+        }
+        
+        System.out.println("🗂️  Running " + pendingClicks.size() + " queued click tests in sandbox tabs");
         try {
-            String currentUrl = driver.getCurrentUrl();
-            
-            // Try regular click first
-            try {
-                element.click();
-                System.out.println("  ✓ Click successful");
-                Thread.sleep(2000);
-                
-                // Check if URL changed
-                String newUrl = driver.getCurrentUrl();
-                if (!newUrl.equals(currentUrl)) {
-                    System.out.println("  📍 URL changed: " + newUrl);
-                    navigateToPage(newUrl);
-                }
-                
-                logTest("click", actionType, element.getText(), newUrl, true, "", currentUrl);
+            for (ClickSandbox.ClickResult result : clickSandbox.run(pendingClicks)) {
+                ClickSandbox.ClickTask task = result.task;
+                String actionType = result.javascriptClick ? task.actionType + " (JS)" : task.actionType;
                 
-            } catch (Exception e) {
-                // Try JavaScript click
-                try {
-                    ((JavascriptExecutor) driver).executeScript("arguments[0].click();", element);
-                    System.out.println("  ✓ JavaScript click successful");
-                    Thread.sleep(2000);
-                    
-                    String newUrl = driver.getCurrentUrl();
-                    if (!newUrl.equals(currentUrl)) {
-                        System.out.println("  📍 URL changed: " + newUrl);
-                        navigateToPage(newUrl);
+                if (result.success) {
+                    System.out.println("  ✓ Click successful: '" + task.text + "'");
+                    if (!result.resultUrl.equals(task.sourceUrl)) {
+                        System.out.println("  📍 URL changed: " + result.resultUrl);
+                        visitedUrls.add(result.resultUrl);
                     }
-                    
-                    logTest("click", actionType + " (JS)", element.getText(), newUrl, true, "", currentUrl);
-                    
-                } catch (Exception jsE) {
-                    System.out.println("  ❌ Both click methods failed: " + jsE.getMessage());
-                    logTest("click", actionType, element.getText(), "", false, jsE.getMessage(), currentUrl);
+                } else {
+                    System.out.println("  ❌ Click failed: '" + task.text + "' " + result.error);
                 }
+                logTest("click", actionType, task.text, result.resultUrl, result.success, result.error, task.sourceUrl);
             }
-            
         } catch (Exception e) {
-            System.out.println("  ❌ Click test failed: " + e.getMessage());
-            logTest("click", actionType, element.getText(), "", false, e.getMessage(), driver.getCurrentUrl());
+            System.out.println("❌ Error running click tests: " + e.getMessage());
+        } finally {
+            pendingClicks.clear();
         }
     }
 
@@ -476,23 +729,16 @@ public class ComprehensiveLinkButtonTester {
 
     private static void closeOverlays() {
         try {
-            List<By> overlaySelectors = List.of(
-                By.cssSelector("button[aria-label='Close']"),
-                By.cssSelector(".modal .close, .modal .close-btn"),
-                By.cssSelector(".overlay .close, .overlay .close-btn"),
-                By.cssSelector("#onetrust-accept-btn-handler"),
-                By.cssSelector(".cookie, .cookies, .cookie-banner button"),
-                By.cssSelector("[data-test*='close'], [data-testid*='close']"),
-                By.cssSelector(".popup-close, .banner-close")
-            );
-            
-            for (By selector : overlaySelectors) {
+            PageModel model = PageModel.capture(driver);
+            for (By selector : Main.OVERLAY_SELECTORS) {
                 try {
-                    List<WebElement> elements = driver.findElements(selector);
+                    List<WebElement> elements = model.find(selector);
                     for (WebElement element : elements) {
-                        if (element.isDisplayed() && element.isEnabled()) {
+                        if (model.isVisible(element) && model.isEnabled(element)) {
                             element.click();
-                            Thread.sleep(1000);
+                            waits.domQuiet(Duration.ofMillis(300), Duration.ofSeconds(2));
+                            // The click changed the page, so later selectors need a fresh snapshot
+                            model = PageModel.capture(driver);
                             break;
                         }
                     }
@@ -506,6 +752,11 @@ public class ComprehensiveLinkButtonTester {
     }
 
     private static void logTest(String elementType, String action, String elementText, String result, boolean success, String error, String currentUrl) {
+        logTest(elementType, action, elementText, result, success, error, currentUrl, "", "", "");
+    }
+
+    private static void logTest(String elementType, String action, String elementText, String result, boolean success, String error, String currentUrl,
+                                String httpStatus, String latencyMs, String finalUrl) {
         try {
             testCount++;
             String[] row = {
@@ -517,9 +768,15 @@ public class ComprehensiveLinkButtonTester {
                 String.valueOf(success),
                 error,
                 currentUrl,
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+                httpStatus,
+                latencyMs,
+                finalUrl
             };
             csvWriter.writeNext(row);
+            if (dbTable != null) {
+                dbTable.write(row);
+            }
             csvWriter.flush();
         } catch (Exception e) {
             System.err.println("Error logging test: " + e.getMessage());
@@ -527,6 +784,14 @@ public class ComprehensiveLinkButtonTester {
     }
 
     private static void cleanup() {
+        if (waits != null) {
+            waits.printStats();
+        }
+        breakers.printStats();
+        if (performance != null) {
+            performance.close();
+        }
+        
         try {
             if (csvWriter != null) {
                 csvWriter.close();
@@ -536,6 +801,16 @@ public class ComprehensiveLinkButtonTester {
             System.err.println("Error closing CSV: " + e.getMessage());
         }
         
+        if (networkArchive != null) {
+            networkArchive.close();
+        }
+        
+        if (database != null) {
+            database.close();
+        }
+        
+        closeTabPool();
+        
         if (driver != null) {
             driver.quit();
             System.out.println("✓ WebDriver closed successfully");
@@ -0,0 +1,31 @@
+package app;
+
+import com.opencsv.CSVWriter;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class CsvRecipeSink implements RecipeSink {
+    private final CSVWriter writer;
+
+    public CsvRecipeSink(Path csvPath) throws IOException {
+        this.writer = new CSVWriter(new FileWriter(csvPath.toFile()));
+        writer.writeNext(RecipeSchema.HEADER);
+    }
+
+    @Override
+    public synchronized void write(String[] row) {
+        writer.writeNext(row);
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
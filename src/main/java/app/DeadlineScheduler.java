@@ -0,0 +1,165 @@
+package app;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per-URL and per-run time budgets; optional phases are shed, cheapest-to-lose first, when time runs short
+public class DeadlineScheduler {
+    // Declared in shedding order: screenshots go first, scrolling last
+    public enum Phase {
+        SCREENSHOT(2_000),
+        PAGINATION(15_000),
+        SCROLL(8_000);
+
+        final long initialEstimateMs;
+
+        Phase(long initialEstimateMs) {
+            this.initialEstimateMs = initialEstimateMs;
+        }
+    }
+
+    // Time kept back for extraction and row writing, which are never shed
+    private static final long EXTRACTION_RESERVE_MS = 3_000;
+
+    private final long runDeadline;
+    private final Duration perUrl;
+    private final Map<Phase, Double> estimatesMs = new EnumMap<>(Phase.class);
+    // Tab mode starts, sheds and skips pages from several threads
+    private final AtomicInteger pagesStarted = new AtomicInteger();
+    private final AtomicInteger pagesPartial = new AtomicInteger();
+    private final AtomicInteger pagesSkipped = new AtomicInteger();
+
+    public DeadlineScheduler(Duration perRun, Duration perUrl) {
+        this.runDeadline = perRun.isZero() ? Long.MAX_VALUE : System.currentTimeMillis() + perRun.toMillis();
+        this.perUrl = perUrl;
+        for (Phase phase : Phase.values()) {
+            estimatesMs.put(phase, (double) phase.initialEstimateMs);
+        }
+    }
+
+    public static DeadlineScheduler fromProperties() {
+        Duration perRun = Duration.ofSeconds(Long.getLong("budget.run", 1200));
+        Duration perUrl = Duration.ofSeconds(Long.getLong("budget.url", 90));
+        System.out.println("⏱️ Budgets: " + (perRun.isZero() ? "no run limit" : perRun.getSeconds() + " s per run")
+                           + ", " + perUrl.getSeconds() + " s per URL");
+        return new DeadlineScheduler(perRun, perUrl);
+    }
+
+    public boolean runExpired() {
+        return System.currentTimeMillis() >= runDeadline;
+    }
+
+    public void skipped() {
+        pagesSkipped.incrementAndGet();
+    }
+
+    public PageBudget startPage(String url) {
+        pagesStarted.incrementAndGet();
+        long deadline = Math.min(runDeadline, System.currentTimeMillis() + perUrl.toMillis());
+        return new PageBudget(url, deadline);
+    }
+
+    // Budget for work outside any page, such as the final screenshot
+    public PageBudget finalPhase() {
+        return new PageBudget("", runDeadline);
+    }
+
+    public class PageBudget {
+        private final String url;
+        private final long deadline;
+        private final Set<Phase> pending = EnumSet.allOf(Phase.class);
+        private final List<String> shed = new ArrayList<>();
+
+        PageBudget(String url, long deadline) {
+            this.url = url;
+            this.deadline = deadline;
+        }
+
+        public long remainingMs() {
+            return Math.max(0, deadline - System.currentTimeMillis());
+        }
+
+        public boolean expired() {
+            return remainingMs() == 0;
+        }
+
+        // A fixed timeout, never longer than what the page has left
+        public Duration cap(Duration timeout) {
+            return Duration.ofMillis(Math.min(timeout.toMillis(), remainingMs()));
+        }
+
+        // Runs a phase only if it fits alongside every later-shed phase still to come and the extraction reserve
+        public boolean shouldRun(Phase phase) {
+            pending.remove(phase);
+            double needed = EXTRACTION_RESERVE_MS + estimate(phase);
+            for (Phase other : pending) {
+                if (other.ordinal() > phase.ordinal()) {
+                    needed += estimate(other);
+                }
+            }
+            if (remainingMs() >= needed) {
+                return true;
+            }
+            shed(phase);
+            return false;
+        }
+
+        // Records a phase's real cost so later pages estimate better
+        public void ran(Phase phase, long elapsedMs) {
+            synchronized (estimatesMs) {
+                estimatesMs.put(phase, estimatesMs.get(phase) * 0.7 + elapsedMs * 0.3);
+            }
+        }
+
+        // A phase cut short by the deadline counts as shed too
+        public void truncated(Phase phase) {
+            shed(phase);
+        }
+
+        // Anything else the page did not fully get, e.g. a page load that hit its timeout
+        public void markPartial(String what) {
+            record(what);
+        }
+
+        private void shed(Phase phase) {
+            record(phase.name().toLowerCase());
+        }
+
+        private void record(String name) {
+            if (!shed.contains(name)) {
+                if (shed.isEmpty() && !url.isEmpty()) {
+                    pagesPartial.incrementAndGet();
+                }
+                shed.add(name);
+                System.out.println("  ⏱️ Shedding " + name + (url.isEmpty() ? "" : " on " + url)
+                                   + " (" + remainingMs() + " ms left)");
+            }
+        }
+
+        public boolean isPartial() {
+            return !shed.isEmpty();
+        }
+
+        // Value for the shed_phases column: empty when the page got every phase
+        public String shedPhases() {
+            return String.join("|", shed);
+        }
+    }
+
+    private double estimate(Phase phase) {
+        synchronized (estimatesMs) {
+            return estimatesMs.get(phase);
+        }
+    }
+
+    public void printStats() {
+        System.out.println("Budgets: " + pagesStarted.get() + " pages, " + pagesPartial.get() + " partial, "
+                           + pagesSkipped.get() + " skipped for the run budget");
+    }
+}
@@ -0,0 +1,142 @@
+package app;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Warm Chrome sessions for long-running work, recycled after a number of uses, an age, or a failure
+public class DriverPool implements AutoCloseable {
+    private final int size;
+    private final int maxUses;
+    private final Duration maxAge;
+    private final boolean headless;
+    private final LinkedBlockingQueue<Session> idle = new LinkedBlockingQueue<>();
+    private final List<Session> all = new ArrayList<>();
+    private int recycled = 0;
+    private boolean closed = false;
+
+    public DriverPool(int size, int maxUses, Duration maxAge, boolean headless) {
+        this.size = Math.max(1, size);
+        this.maxUses = Math.max(1, maxUses);
+        this.maxAge = maxAge;
+        this.headless = headless;
+        WebDriverManager.chromedriver().setup();
+        for (int i = 0; i < this.size; i++) {
+            idle.add(newSession());
+        }
+        System.out.println("✓ Driver pool: " + this.size + " warm sessions");
+    }
+
+    public static class Session {
+        public final WebDriver driver;
+        public final Waits waits;
+        final SessionHealth health;
+        private RuleExtractor rules;
+        private final long createdAt = System.currentTimeMillis();
+        private int uses = 0;
+
+        Session(WebDriver driver) {
+            this.driver = driver;
+            this.waits = new Waits(driver);
+            this.health = SessionHealth.fromProperties(driver);
+        }
+
+        // Compiled and registered on first use only; most sessions never need it
+        public RuleExtractor rules() {
+            if (rules == null) {
+                rules = new RuleExtractor(driver);
+            }
+            return rules;
+        }
+    }
+
+    private synchronized Session newSession() {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--window-size=1280,900");
+        options.addArguments("--disable-blink-features=AutomationControlled");
+        options.addArguments("--disable-extensions");
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        if (headless) {
+            options.addArguments("--headless=new");
+        }
+        Session session = new Session(new ChromeDriver(options));
+        all.add(session);
+        return session;
+    }
+
+    public Session borrow(Duration timeout) throws InterruptedException {
+        replenish();
+        Session session = idle.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        if (session == null) {
+            throw new IllegalStateException("No browser session free within " + timeout.getSeconds() + " s");
+        }
+        session.uses++;
+        return session;
+    }
+
+    // Unhealthy, worn-out or old sessions are replaced so a weeks-long run never accumulates browser state
+    public void release(Session session, boolean healthy) {
+        boolean worn = session.uses >= maxUses || System.currentTimeMillis() - session.createdAt > maxAge.toMillis();
+        // RSS is the session's own Chrome process tree, so a heavy browser is the one retired
+        String reason = healthy && !worn ? session.health.check() : null;
+        if (healthy && !worn && reason == null) {
+            idle.add(session);
+            return;
+        }
+        if (reason != null) {
+            System.out.println("♻️  Recycling browser session: " + reason);
+        }
+        synchronized (this) {
+            quit(session);
+            all.remove(session);
+            recycled++;
+            if (closed) {
+                return;
+            }
+        }
+        replenish();
+    }
+
+    // Brings the pool back to size; a replacement that fails to start is retried on the next borrow
+    private synchronized void replenish() {
+        while (!closed && all.size() < size) {
+            try {
+                idle.add(newSession());
+            } catch (Exception e) {
+                System.err.println("Error replacing browser session (retrying on next borrow): " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private static void quit(Session session) {
+        try {
+            session.driver.quit();
+        } catch (Exception e) {
+            // Already gone
+        }
+    }
+
+    public synchronized int getRecycled() {
+        return recycled;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Session session : all) {
+            quit(session);
+        }
+        all.clear();
+        idle.clear();
+        System.out.println("✓ Driver pool closed (" + recycled + " sessions recycled)");
+    }
+}
@@ -23,7 +23,11 @@ import java.util.List;
 public class ElementInteractionDemo {
     private static WebDriver driver;
     private static WebDriverWait wait;
+    private static Waits waits;
     private static CSVWriter csvWriter;
+    private static NetworkArchive networkArchive;
+    private static RunDatabase database;
+    private static RecipeSink dbTable;
     private static int interactionCount = 0;
 
     public static void main(String[] args) {
@@ -63,6 +67,8 @@ public class ElementInteractionDemo {
         
         driver = new ChromeDriver(options);
         wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+        networkArchive = NetworkArchive.attachFromProperties(driver, "interaction_demo");
+        waits = new Waits(driver);
         
         System.out.println("✓ WebDriver initialized successfully");
     }
@@ -81,6 +87,10 @@ public class ElementInteractionDemo {
             String[] header = {"interaction_id", "interaction_type", "element_type", "action", 
                               "element_text", "element_value", "success", "url", "timestamp"};
             csvWriter.writeNext(header);
+            database = RunDatabase.fromProperties("interaction_demo");
+            if (database != null) {
+                dbTable = database.table("interactions", header);
+            }
             
             System.out.println("✓ Output files configured: " + csvPath.toAbsolutePath());
         } catch (IOException e) {
@@ -166,7 +176,7 @@ public class ElementInteractionDemo {
                             org.openqa.selenium.interactions.Actions actions = new org.openqa.selenium.interactions.Actions(driver);
                             actions.moveToElement(link).perform();
                             System.out.println("  - Actions.moveToElement() - Hover performed");
-                            Thread.sleep(1000);
+                            waits.domQuiet(Duration.ofMillis(200), Duration.ofSeconds(1));
                         } catch (Exception e) {
                             System.out.println("  - Hover action failed: " + e.getMessage());
                         }
@@ -204,9 +214,10 @@ public class ElementInteractionDemo {
                                                    buttonText.toLowerCase().contains("view") ||
                                                    buttonText.toLowerCase().contains("show"))) {
                         try {
+                            String beforeClick = driver.getCurrentUrl();
                             button.click();
                             System.out.println("  - click() performed successfully");
-                            Thread.sleep(2000);
+                            waits.afterClick(beforeClick, Duration.ofSeconds(10));
                             logInteraction("Button", "button", "click()", buttonText, "", true);
                             break; // Only click one button to avoid navigation issues
                         } catch (Exception e) {
@@ -305,7 +316,7 @@ public class ElementInteractionDemo {
             // Demonstrate scrolling
             ((JavascriptExecutor) driver).executeScript("window.scrollTo(0, 500)");
             System.out.println("✓ JavaScript scroll performed");
-            Thread.sleep(1000);
+            waits.domQuiet(Duration.ofMillis(200), Duration.ofSeconds(1));
             
             // Demonstrate finding elements by different locators
             demonstrateElementLocators();
@@ -322,46 +333,28 @@ public class ElementInteractionDemo {
     }
 
     private static void demonstrateElementLocators() {
-        System.out.println("\n--- Element Locator Strategies ---");
-        
-        // By ID
-        try {
-            List<WebElement> elementsById = driver.findElements(By.id("main"));
-            System.out.println("✓ By.id() - Found " + elementsById.size() + " elements");
-        } catch (Exception e) {
-            System.out.println("✓ By.id() - No elements found with id 'main'");
-        }
-        
-        // By Class Name
-        try {
-            List<WebElement> elementsByClass = driver.findElements(By.className("container"));
-            System.out.println("✓ By.className() - Found " + elementsByClass.size() + " elements");
-        } catch (Exception e) {
-            System.out.println("✓ By.className() - No elements found with class 'container'");
-        }
+        System.out.println("\n--- Element Locator Strategies (profiled) ---");
         
-        // By Tag Name
         try {
-            List<WebElement> divs = driver.findElements(By.tagName("div"));
-            System.out.println("✓ By.tagName() - Found " + divs.size() + " div elements");
-        } catch (Exception e) {
-            System.out.println("✓ By.tagName() - Error finding divs");
-        }
-        
-        // By CSS Selector
-        try {
-            List<WebElement> elementsByCSS = driver.findElements(By.cssSelector("a[href]"));
-            System.out.println("✓ By.cssSelector() - Found " + elementsByCSS.size() + " links");
-        } catch (Exception e) {
-            System.out.println("✓ By.cssSelector() - Error finding links");
-        }
-        
-        // By XPath
-        try {
-            List<WebElement> elementsByXPath = driver.findElements(By.xpath("//img"));
-            System.out.println("✓ By.xpath() - Found " + elementsByXPath.size() + " images");
+            // The five basic strategies, then every locator the other runners rely on
+            int repetitions = Integer.getInteger("locators.reps", 20);
+            LocatorProfiler profiler = LocatorProfiler.forProject(driver, repetitions);
+            profiler.add("demo By.id()", By.id("main"));
+            profiler.add("demo By.className()", By.className("container"));
+            profiler.add("demo By.tagName()", By.tagName("div"));
+            profiler.add("demo By.cssSelector()", By.cssSelector("a[href]"));
+            profiler.add("demo By.xpath()", By.xpath("//img"));
+            
+            List<LocatorProfiler.Entry> profiled = profiler.run();
+            LocatorProfiler.print(profiled);
+            
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            Path csvPath = Paths.get("output").resolve("locator_profile_" + timestamp + ".csv");
+            LocatorProfiler.write(profiled, csvPath);
+            System.out.println("✓ Locator profile (" + profiled.size() + " locators, " + repetitions
+                               + " runs each): " + csvPath.toAbsolutePath());
         } catch (Exception e) {
-            System.out.println("✓ By.xpath() - Error finding images");
+            System.out.println("  - Error profiling locators: " + e.getMessage());
         }
     }
 
@@ -404,6 +397,9 @@ public class ElementInteractionDemo {
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
             };
             csvWriter.writeNext(row);
+            if (dbTable != null) {
+                dbTable.write(row);
+            }
             csvWriter.flush();
         } catch (Exception e) {
             System.err.println("Error logging interaction: " + e.getMessage());
@@ -423,6 +419,10 @@ public class ElementInteractionDemo {
     }
 
     private static void cleanup() {
+        if (waits != null) {
+            waits.printStats();
+        }
+        
         try {
             if (csvWriter != null) {
                 csvWriter.close();
@@ -432,6 +432,14 @@ public class ElementInteractionDemo {
             System.err.println("Error closing CSV: " + e.getMessage());
         }
         
+        if (networkArchive != null) {
+            networkArchive.close();
+        }
+        
+        if (database != null) {
+            database.close();
+        }
+        
         if (driver != null) {
             driver.quit();
             System.out.println("✓ WebDriver closed successfully");
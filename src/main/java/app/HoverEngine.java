@@ -0,0 +1,161 @@
+package app;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.interactions.Actions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class HoverEngine {
+    // Longest transition we are prepared to wait for before diffing styles
+    private static final long MAX_TRANSITION_WAIT_MS = 1000;
+
+    // One call both finishes the previous hover (style + mutation diff) and prepares the next one
+    // (scroll into view, baseline styles, transition length, centre point)
+    private static final String STEP_SCRIPT =
+        "var S = window.__accHover || (window.__accHover = {" +
+        "  props: ['color', 'background-color', 'border-color', 'outline-color', 'box-shadow', 'opacity'," +
+        "          'transform', 'text-decoration-line', 'filter', 'visibility'], base: null, muts: 0, obs: null});" +
+        "function snap(el) { var cs = getComputedStyle(el), o = {};" +
+        "  S.props.forEach(function(p) { o[p] = cs.getPropertyValue(p); }); return o; }" +
+        "function ms(v) { return v.split(',').map(function(s) { s = s.trim();" +
+        "  return s.indexOf('ms') > 0 ? parseFloat(s) : parseFloat(s) * 1000; }); }" +
+        "var out = {changed: null, next: null};" +
+        "if (arguments[0] && S.base) {" +
+        "  var now = snap(arguments[0]), ch = [];" +
+        "  S.props.forEach(function(p) { if (now[p] !== S.base[p]) ch.push(p); });" +
+        "  if (S.muts > 0) ch.push('dom-mutations:' + S.muts);" +
+        "  out.changed = ch.join(',');" +
+        "}" +
+        "if (S.obs) { S.obs.disconnect(); S.obs = null; }" +
+        "if (arguments[1]) {" +
+        "  var el = arguments[1];" +
+        "  el.scrollIntoView({block: 'center', inline: 'center'});" +
+        "  var r = el.getBoundingClientRect(), cs = getComputedStyle(el);" +
+        "  S.base = snap(el); S.muts = 0;" +
+        "  S.obs = new MutationObserver(function(m) { S.muts += m.length; });" +
+        "  S.obs.observe(document.body, {attributes: true, childList: true, subtree: true, characterData: true});" +
+        "  var d = ms(cs.transitionDuration), dl = ms(cs.transitionDelay), w = 0;" +
+        "  for (var i = 0; i < d.length; i++) { w = Math.max(w, (d[i] || 0) + (dl[i % dl.length] || 0)); }" +
+        "  out.next = [r.left + r.width / 2, r.top + r.height / 2, w, r.width > 0 && r.height > 0];" +
+        "}" +
+        "return out;";
+
+    private final WebDriver driver;
+
+    public HoverEngine(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    public static class HoverResult {
+        public final boolean success;
+        public final boolean visibleEffect;
+        public final String changes;
+        public final long waitedMs;
+        public final String error;
+
+        HoverResult(boolean success, boolean visibleEffect, String changes, long waitedMs, String error) {
+            this.success = success;
+            this.visibleEffect = visibleEffect;
+            this.changes = changes;
+            this.waitedMs = waitedMs;
+            this.error = error;
+        }
+
+        public String describeEffect() {
+            return visibleEffect ? "effect:" + changes : "no_effect";
+        }
+    }
+
+    public HoverResult hover(WebElement element) {
+        return hoverAll(Collections.singletonList(element)).get(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<HoverResult> hoverAll(List<WebElement> elements) {
+        List<HoverResult> results = new ArrayList<>();
+        if (!(driver instanceof HasCdp)) {
+            for (WebElement element : elements) {
+                results.add(hoverWithActions(element));
+            }
+            return results;
+        }
+
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        WebElement previous = null;
+        long previousWait = 0;
+        for (int i = 0; i <= elements.size(); i++) {
+            WebElement next = i < elements.size() ? elements.get(i) : null;
+            Map<String, Object> step;
+            try {
+                step = (Map<String, Object>) js.executeScript(STEP_SCRIPT, previous, next);
+            } catch (Exception e) {
+                if (previous != null) {
+                    results.add(new HoverResult(false, false, "", previousWait, firstLine(e)));
+                }
+                previous = null;
+                if (next != null) {
+                    // The next element could not be prepared either, fall back for it alone
+                    results.add(hoverWithActions(next));
+                }
+                continue;
+            }
+
+            if (previous != null) {
+                String changed = String.valueOf(step.get("changed"));
+                results.add(new HoverResult(true, !changed.isEmpty() && !"null".equals(changed), changed, previousWait, ""));
+            }
+            if (next == null) {
+                break;
+            }
+
+            List<Object> prepared = (List<Object>) step.get("next");
+            if (!Boolean.TRUE.equals(prepared.get(3))) {
+                results.add(new HoverResult(false, false, "", 0, "Element has no layout box"));
+                previous = null;
+                continue;
+            }
+
+            try {
+                ((HasCdp) driver).executeCdpCommand("Input.dispatchMouseEvent", Map.of(
+                    "type", "mouseMoved",
+                    "x", ((Number) prepared.get(0)).doubleValue(),
+                    "y", ((Number) prepared.get(1)).doubleValue()));
+            } catch (Exception e) {
+                results.add(new HoverResult(false, false, "", 0, firstLine(e)));
+                previous = null;
+                continue;
+            }
+
+            // Only wait while a CSS transition is actually running
+            previousWait = Math.min(MAX_TRANSITION_WAIT_MS, Math.round(((Number) prepared.get(2)).doubleValue()));
+            if (previousWait > 0) {
+                try {
+                    Thread.sleep(previousWait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            previous = next;
+        }
+        return results;
+    }
+
+    private HoverResult hoverWithActions(WebElement element) {
+        try {
+            new Actions(driver).moveToElement(element).perform();
+            return new HoverResult(true, false, "", 0, "");
+        } catch (Exception e) {
+            return new HoverResult(false, false, "", 0, firstLine(e));
+        }
+    }
+
+    private static String firstLine(Exception e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage().split("\n")[0];
+    }
+}
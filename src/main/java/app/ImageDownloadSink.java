@@ -0,0 +1,279 @@
+package app;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fills image_local_path by downloading image_url in the background before passing the row on
+public class ImageDownloadSink implements RecipeSink {
+    private static final int IMAGE_URL = RecipeSchema.indexOf("image_url");
+    private static final int IMAGE_LOCAL_PATH = RecipeSchema.indexOf("image_local_path");
+
+    private final RecipeSink delegate;
+    private final Path imageDir;
+    private final int perHostLimit;
+    private final int thumbnailSize;
+    private final HttpClient client;
+    private final ThreadPoolExecutor downloads;
+    private final ExecutorService thumbnails;
+    private final Map<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<String>> byUrl = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> byContent = new ConcurrentHashMap<>();
+    // Rows waiting on their download; whoever removes a row writes it, so close() can write stragglers itself
+    private final Set<String[]> pendingRows = ConcurrentHashMap.newKeySet();
+    private volatile long lastWritten = System.currentTimeMillis();
+
+    private final AtomicInteger downloaded = new AtomicInteger();
+    private final AtomicInteger urlHits = new AtomicInteger();
+    private final AtomicInteger contentHits = new AtomicInteger();
+    private final AtomicInteger dropped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger late = new AtomicInteger();
+
+    public ImageDownloadSink(RecipeSink delegate, Path imageDir, int concurrency, int perHostLimit,
+                             int queueSize, int thumbnailSize) throws IOException {
+        this.delegate = delegate;
+        this.imageDir = imageDir;
+        this.perHostLimit = Math.max(1, perHostLimit);
+        this.thumbnailSize = thumbnailSize;
+        Files.createDirectories(imageDir);
+        this.client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        // A full queue rejects the task, and the row goes out without a local image
+        this.downloads = new ThreadPoolExecutor(concurrency, concurrency, 30, TimeUnit.SECONDS,
+                                                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                                                new ThreadPoolExecutor.AbortPolicy());
+        this.thumbnails = thumbnailSize > 0
+            ? Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2))
+            : null;
+        System.out.println("✓ Image downloads: " + imageDir.toAbsolutePath() + " (" + concurrency + " connections, "
+                           + this.perHostLimit + " per host" + (thumbnailSize > 0 ? ", " + thumbnailSize + "px thumbnails" : "") + ")");
+    }
+
+    public static RecipeSink wrapFromProperties(RecipeSink delegate) throws IOException {
+        if (!Boolean.getBoolean("images.download")) {
+            return delegate;
+        }
+        return new ImageDownloadSink(delegate,
+                                     Paths.get(System.getProperty("images.dir", "output/images")),
+                                     Integer.getInteger("images.concurrency", 8),
+                                     Integer.getInteger("images.perHost", 2),
+                                     Integer.getInteger("images.queue", 256),
+                                     Integer.getInteger("images.thumbnail", 0));
+    }
+
+    @Override
+    public void write(String[] row) throws IOException {
+        String imageUrl = IMAGE_URL < row.length && row[IMAGE_URL] != null ? row[IMAGE_URL].trim() : "";
+        String[] copy = Arrays.copyOf(row, RecipeSchema.HEADER.length);
+        if (!imageUrl.startsWith("http")) {
+            forward(copy, "");
+            return;
+        }
+
+        CompletableFuture<String> download = byUrl.get(imageUrl);
+        if (download != null) {
+            urlHits.incrementAndGet();
+        } else {
+            CompletableFuture<String> created = new CompletableFuture<>();
+            download = byUrl.putIfAbsent(imageUrl, created);
+            if (download == null) {
+                download = created;
+                try {
+                    downloads.execute(() -> fetch(imageUrl, created));
+                } catch (RejectedExecutionException e) {
+                    // Never make the scraper wait on images: skip this one and let a later row retry
+                    byUrl.remove(imageUrl, created);
+                    dropped.incrementAndGet();
+                    forward(copy, "");
+                    return;
+                }
+            } else {
+                urlHits.incrementAndGet();
+            }
+        }
+
+        pendingRows.add(copy);
+        download.whenComplete((path, error) -> {
+            if (!pendingRows.remove(copy)) {
+                return; // close() gave up on the download and already wrote the row
+            }
+            try {
+                forward(copy, path == null ? "" : path);
+            } catch (IOException e) {
+                System.err.println("Error writing row after image download: " + e.getMessage());
+            } finally {
+                lastWritten = System.currentTimeMillis();
+            }
+        });
+    }
+
+    private void forward(String[] row, String localPath) throws IOException {
+        row[IMAGE_LOCAL_PATH] = localPath;
+        delegate.write(row);
+    }
+
+    private void fetch(String imageUrl, CompletableFuture<String> result) {
+        Semaphore permits = null;
+        try {
+            URI uri = URI.create(imageUrl);
+            permits = hostPermits.computeIfAbsent(String.valueOf(uri.getHost()), h -> new Semaphore(perHostLimit));
+            permits.acquire();
+            HttpResponse<byte[]> response = client.send(
+                HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() >= 400) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+            byte[] body = response.body();
+            String hash = sha256(body);
+            String contentType = response.headers().firstValue("Content-Type").orElse("");
+            Path target = imageDir.resolve(hash + extension(contentType, uri.getPath()));
+
+            // Content-addressed: the same picture behind a different URL is stored once
+            if (byContent.putIfAbsent(hash, Boolean.TRUE) == null && !Files.exists(target)) {
+                Path temp = Files.createTempFile(imageDir, hash, ".part");
+                Files.write(temp, body);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                downloaded.incrementAndGet();
+                if (thumbnails != null) {
+                    thumbnails.execute(() -> thumbnail(body, hash));
+                }
+            } else {
+                contentHits.incrementAndGet();
+            }
+            result.complete(target.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+            result.complete("");
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            result.complete("");
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    private void thumbnail(byte[] body, String hash) {
+        try {
+            Path target = imageDir.resolve("thumbs").resolve(hash + ".png");
+            if (Files.exists(target)) {
+                return;
+            }
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(body));
+            if (source == null) {
+                return; // Format ImageIO cannot decode (e.g. WebP)
+            }
+            double scale = Math.min(1.0, (double) thumbnailSize / Math.max(source.getWidth(), source.getHeight()));
+            int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = scaled.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+            g.dispose();
+            Files.createDirectories(target.getParent());
+            ImageIO.write(scaled, "png", target.toFile());
+        } catch (IOException e) {
+            System.err.println("Error creating thumbnail " + hash + ": " + e.getMessage());
+        }
+    }
+
+    private static String extension(String contentType, String path) {
+        String type = contentType.toLowerCase();
+        if (type.contains("png")) return ".png";
+        if (type.contains("webp")) return ".webp";
+        if (type.contains("gif")) return ".gif";
+        if (type.contains("svg")) return ".svg";
+        if (type.contains("jpeg") || type.contains("jpg")) return ".jpg";
+        int dot = path.lastIndexOf('.');
+        String fromPath = dot >= 0 ? path.substring(dot).toLowerCase() : "";
+        return fromPath.matches("\\.[a-z0-9]{2,5}") ? fromPath : ".img";
+    }
+
+    private static String sha256(byte[] body) throws NoSuchAlgorithmException {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(body)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    // Rows still waiting on a download are written before the delegate is flushed
+    @Override
+    public void flush() throws IOException {
+        awaitPendingRows();
+        delegate.flush();
+    }
+
+    // Waits as long as downloads keep finishing; gives up after two minutes without one
+    private void awaitPendingRows() {
+        long stalledMs = TimeUnit.MINUTES.toMillis(2);
+        lastWritten = System.currentTimeMillis();
+        try {
+            while (!pendingRows.isEmpty() && System.currentTimeMillis() - lastWritten < stalledMs) {
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        downloads.shutdown();
+        awaitPendingRows();
+        // Stragglers go out without a local image rather than after the delegate is closed
+        for (String[] row : pendingRows) {
+            if (pendingRows.remove(row)) {
+                late.incrementAndGet();
+                forward(row, "");
+            }
+        }
+        downloads.shutdownNow();
+        if (thumbnails != null) {
+            thumbnails.shutdown();
+            try {
+                thumbnails.awaitTermination(2, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        System.out.println("✓ Images: " + downloaded.get() + " downloaded, " + urlHits.get() + " repeated URLs, "
+                           + contentHits.get() + " duplicate content, " + dropped.get() + " dropped, "
+                           + failed.get() + " failed" + (late.get() == 0 ? "" : ", " + late.get() + " rows written without waiting"));
+        delegate.close();
+    }
+}
@@ -0,0 +1,92 @@
+package app;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class LinkIndex {
+    // Links, navigation links and buttons with their visible text, gathered in a single script call
+    private static final String INDEX_SCRIPT =
+        "var out = [], navs = new Set(document.querySelectorAll('nav a, .nav a, .navigation a, .menu a'));" +
+        "function text(el) { return (el.innerText || el.textContent || '').trim(); }" +
+        "document.querySelectorAll('a[href]').forEach(function(a) {" +
+        "  out.push([navs.has(a) ? 'nav' : 'link', text(a), a.href]);" +
+        "});" +
+        "document.querySelectorAll('button').forEach(function(b) { out.push(['button', text(b), '']); });" +
+        "return out;";
+
+    private static final Map<String, LinkIndex> cache = new ConcurrentHashMap<>();
+
+    private final String pageUrl;
+    private final long builtAt;
+    private final List<Entry> entries;
+
+    private LinkIndex(String pageUrl, List<Entry> entries) {
+        this.pageUrl = pageUrl;
+        this.builtAt = System.currentTimeMillis();
+        this.entries = entries;
+    }
+
+    public static class Entry {
+        public final String kind;
+        public final String text;
+        public final String href;
+
+        Entry(String kind, String text, String href) {
+            this.kind = kind;
+            this.text = text;
+            this.href = href;
+        }
+    }
+
+    public static LinkIndex cached(String pageUrl, Duration ttl) {
+        LinkIndex index = cache.get(pageUrl);
+        if (index == null || System.currentTimeMillis() - index.builtAt > ttl.toMillis()) {
+            return null;
+        }
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static LinkIndex build(WebDriver driver, String pageUrl) {
+        List<Entry> entries = new ArrayList<>();
+        List<Object> rows = (List<Object>) ((JavascriptExecutor) driver).executeScript(INDEX_SCRIPT);
+        for (Object row : rows) {
+            List<Object> fields = (List<Object>) row;
+            entries.add(new Entry(String.valueOf(fields.get(0)), String.valueOf(fields.get(1)), String.valueOf(fields.get(2))));
+        }
+        LinkIndex index = new LinkIndex(pageUrl, entries);
+        cache.put(pageUrl, index);
+        return index;
+    }
+
+    public String getPageUrl() {
+        return pageUrl;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Same matching rule the section search always used: case-insensitive "text contains name"
+    public List<Entry> find(String name, String hrefPrefix, String... kinds) {
+        String needle = name.toLowerCase();
+        List<String> wanted = Arrays.asList(kinds);
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!wanted.contains(entry.kind) || !entry.text.toLowerCase().contains(needle)) {
+                continue;
+            }
+            if (hrefPrefix == null || entry.href.startsWith(hrefPrefix)) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,155 @@
+package app;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+public class LinkVerifier {
+    // Collect every anchor once, deduplicated by absolute href without its #fragment (the server never sees it),
+    // in a single script call
+    private static final String COLLECT_LINKS_SCRIPT =
+        "var seen = {}, out = [];" +
+        "document.querySelectorAll('a[href]').forEach(function(a) {" +
+        "  var href = String(a.href).split('#')[0];" +
+        "  if (!href || seen[href]) return;" +
+        "  seen[href] = true;" +
+        "  out.push([href, (a.innerText || a.textContent || '').trim()]);" +
+        "});" +
+        "return out;";
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final Duration requestTimeout;
+
+    public LinkVerifier(int maxConcurrency, Duration requestTimeout) {
+        this.executor = Executors.newFixedThreadPool(maxConcurrency);
+        this.inFlight = new Semaphore(maxConcurrency);
+        this.requestTimeout = requestTimeout;
+        this.client = HttpClient.newBuilder()
+            .executor(executor)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(requestTimeout)
+            .build();
+    }
+
+    public static class LinkResult {
+        public final String href;
+        public final String text;
+        public final int status;
+        public final long latencyMs;
+        public final String finalUrl;
+        public final String error;
+
+        LinkResult(String href, String text, int status, long latencyMs, String finalUrl, String error) {
+            this.href = href;
+            this.text = text;
+            this.status = status;
+            this.latencyMs = latencyMs;
+            this.finalUrl = finalUrl;
+            this.error = error;
+        }
+
+        public boolean isSuccess() {
+            return error.isEmpty() && status >= 200 && status < 400;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, String> collectLinks(WebDriver driver) {
+        Map<String, String> links = new LinkedHashMap<>();
+        Object result = ((JavascriptExecutor) driver).executeScript(COLLECT_LINKS_SCRIPT);
+        if (result instanceof List) {
+            for (Object entry : (List<Object>) result) {
+                List<Object> pair = (List<Object>) entry;
+                links.put(String.valueOf(pair.get(0)), String.valueOf(pair.get(1)));
+            }
+        }
+        return links;
+    }
+
+    public List<LinkResult> verifyAll(Map<String, String> links) {
+        List<CompletableFuture<LinkResult>> futures = new ArrayList<>();
+        for (Map.Entry<String, String> link : links.entrySet()) {
+            futures.add(verify(link.getKey(), link.getValue()));
+        }
+
+        List<LinkResult> results = new ArrayList<>();
+        for (CompletableFuture<LinkResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    public CompletableFuture<LinkResult> verify(String href, String text) {
+        URI uri;
+        try {
+            uri = URI.create(href);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(new LinkResult(href, text, 0, 0, "", "Invalid URL"));
+        }
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme)) {
+            return CompletableFuture.completedFuture(new LinkResult(href, text, 0, 0, "", "Unsupported scheme: " + scheme));
+        }
+
+        inFlight.acquireUninterruptibly();
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<Void>> head;
+        try {
+            head = send(uri, "HEAD");
+        } catch (Exception e) {
+            inFlight.release();
+            return CompletableFuture.completedFuture(new LinkResult(href, text, 0, 0, "", describe(e)));
+        }
+        return head
+            .thenCompose(response -> {
+                // Some servers reject HEAD, retry those with a GET
+                if (response.statusCode() == 405 || response.statusCode() == 501) {
+                    return send(uri, "GET");
+                }
+                return CompletableFuture.completedFuture(response);
+            })
+            .handle((response, error) -> {
+                inFlight.release();
+                long latencyMs = (System.nanoTime() - start) / 1_000_000;
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    return new LinkResult(href, text, 0, latencyMs, "", describe(cause));
+                }
+                return new LinkResult(href, text, response.statusCode(), latencyMs, response.uri().toString(), "");
+            });
+    }
+
+    // Never null, so LinkResult.isSuccess() and the CSV always have something to show
+    private static String describe(Throwable error) {
+        String name = error.getClass().getSimpleName();
+        return error.getMessage() == null ? name : name + ": " + error.getMessage();
+    }
+
+    private CompletableFuture<HttpResponse<Void>> send(URI uri, String method) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .method(method, HttpRequest.BodyPublishers.noBody())
+            .timeout(requestTimeout)
+            .header("User-Agent", "Mozilla/5.0 (link-verifier)")
+            .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
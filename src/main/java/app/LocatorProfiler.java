@@ -0,0 +1,435 @@
+package app;
+
+import com.opencsv.CSVWriter;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Times locators against the current page and suggests cheaper selectors that match exactly the same elements
+public class LocatorProfiler {
+    private static final String[] HEADER = {
+        "source", "strategy", "selector", "matches", "median_ms", "p90_ms", "in_page_us",
+        "recommendation", "recommendation_scope", "recommended_median_ms", "recommended_in_page_us", "note"
+    };
+
+    // An xpath translated to CSS selects the same elements on any page; the other rewrites were only checked on this one
+    static final String SCOPE_ANY_PAGE = "any page";
+    static final String SCOPE_PAGE_SPECIFIC = "page-specific";
+
+    // For each locator: match count and mean in-page cost over `reps` runs, with no WebDriver round trip
+    private static final String IN_PAGE_SCRIPT =
+        "var locators = arguments[0], reps = arguments[1], out = [];" +
+        "function q(l) {" +
+        "  if (l.using === 'xpath') {" +
+        "    var r = document.evaluate(l.value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), a = [];" +
+        "    for (var i = 0; i < r.snapshotLength; i++) a.push(r.snapshotItem(i));" +
+        "    return a;" +
+        "  }" +
+        "  return Array.prototype.slice.call(document.querySelectorAll(l.value));" +
+        "}" +
+        "locators.forEach(function(l) {" +
+        "  try {" +
+        "    var n = q(l).length, start = performance.now();" +
+        "    for (var i = 0; i < reps; i++) q(l);" +
+        "    out.push([n, (performance.now() - start) * 1000 / reps]);" +
+        "  } catch (e) { out.push([-1, -1]); }" +
+        "});" +
+        "return out;";
+
+    // True when both locators select exactly the same elements; the single element's unique id, if any
+    private static final String COMPARE_SCRIPT =
+        "function q(l) {" +
+        "  if (l.using === 'xpath') {" +
+        "    var r = document.evaluate(l.value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), a = [];" +
+        "    for (var i = 0; i < r.snapshotLength; i++) a.push(r.snapshotItem(i));" +
+        "    return a;" +
+        "  }" +
+        "  return Array.prototype.slice.call(document.querySelectorAll(l.value));" +
+        "}" +
+        "try {" +
+        "  var a = q(arguments[0]), b = q(arguments[1]);" +
+        "  if (a.length !== b.length) return false;" +
+        "  var set = new Set(a);" +
+        "  return b.every(function(e) { return set.has(e); });" +
+        "} catch (e) { return false; }";
+
+    private static final String UNIQUE_ID_SCRIPT =
+        "var el = document.querySelectorAll(arguments[0]);" +
+        "if (el.length !== 1 || !el[0].id) return null;" +
+        "var sel = '#' + CSS.escape(el[0].id);" +
+        "return document.querySelectorAll(sel).length === 1 ? sel : null;";
+
+    private static final Pattern SIMPLE_XPATH = Pattern.compile(
+        "^//([a-zA-Z][\\w-]*|\\*)(?:\\[@([\\w-]+)\\s*=\\s*'([^']*)'\\])?$");
+
+    private final WebDriver driver;
+    private final int repetitions;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public LocatorProfiler(WebDriver driver, int repetitions) {
+        this.driver = driver;
+        this.repetitions = Math.max(3, repetitions);
+    }
+
+    // Standalone run against one page, e.g. after a site redesign: args[0] is the URL (homepage by default)
+    public static void main(String[] args) throws IOException {
+        String url = args.length > 0 ? args[0] : "https://www.greenchef.com/";
+        int repetitions = Integer.getInteger("locators.reps", 20);
+        WebDriverManager.chromedriver().setup();
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--window-size=1280,900");
+        options.addArguments("--disable-blink-features=AutomationControlled");
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        WebDriver driver = new ChromeDriver(options);
+        try {
+            driver.get(url);
+            new Waits(driver).pageSettled(Duration.ofSeconds(15));
+            List<Entry> profiled = forProject(driver, repetitions).run();
+            print(profiled);
+
+            Path outDir = Paths.get("output");
+            Files.createDirectories(outDir);
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            Path csvPath = outDir.resolve("locator_profile_" + timestamp + ".csv");
+            write(profiled, csvPath);
+            System.out.println("✓ Locator profile: " + csvPath.toAbsolutePath());
+        } finally {
+            driver.quit();
+        }
+    }
+
+    public static class Entry {
+        String source;
+        public final By by;
+        public final String using;
+        public final String value;
+        int matches;
+        double medianMs;
+        double p90Ms;
+        double inPageUs = -1;
+        String recommendation = "";
+        String recommendationScope = "";
+        double recommendedMedianMs = -1;
+        double recommendedInPageUs = -1;
+        String note = "";
+
+        Entry(String source, By by, String using, String value) {
+            this.source = source;
+            this.by = by;
+            this.using = using;
+            this.value = value;
+        }
+    }
+
+    // Every locator the runners use: Main's pagination and overlays, the testers' element sets, and the extraction rules
+    public static LocatorProfiler forProject(WebDriver driver, int repetitions) {
+        LocatorProfiler profiler = new LocatorProfiler(driver, repetitions);
+        profiler.add("all runners", By.tagName("body"));
+        profiler.addAll("Main.PAGINATION_SELECTORS", Main.PAGINATION_SELECTORS);
+        // Shared by Main and both testers
+        profiler.addAll("Main.OVERLAY_SELECTORS", Main.OVERLAY_SELECTORS);
+        profiler.addAll("ComprehensiveLinkButtonTester.CLICKABLE_SELECTORS", ComprehensiveLinkButtonTester.CLICKABLE_SELECTORS);
+        profiler.add("ComprehensiveLinkButtonTester.SCRIPT_LINK_SELECTOR", ComprehensiveLinkButtonTester.SCRIPT_LINK_SELECTOR);
+        profiler.add("ComprehensiveLinkButtonTester.BUTTON_SELECTOR", ComprehensiveLinkButtonTester.BUTTON_SELECTOR);
+        profiler.add("ComprehensiveLinkButtonTester.TEXT_INPUT_SELECTOR", ComprehensiveLinkButtonTester.TEXT_INPUT_SELECTOR);
+        profiler.add("ComprehensiveLinkButtonTester.NAV_LINK_SELECTOR", ComprehensiveLinkButtonTester.NAV_LINK_SELECTOR);
+        profiler.add("SystematicNavigationTester.CLICKABLE_SELECTOR", SystematicNavigationTester.CLICKABLE_SELECTOR);
+        // Field rules run inside each container; profiled document-wide they still rank relative cost
+        for (Map.Entry<String, List<String>> rule : new RuleExtractor(driver).getSelectors().entrySet()) {
+            for (String selector : rule.getValue()) {
+                profiler.add("rules:" + rule.getKey(), By.cssSelector(selector));
+            }
+        }
+        return profiler;
+    }
+
+    // The same locator from several places is profiled once, credited to every source
+    public void add(String source, By by) {
+        String[] locator = locatorOf(by);
+        String key = locator[0] + ":" + locator[1];
+        Entry existing = entries.get(key);
+        if (existing != null) {
+            if (!existing.source.contains(source)) {
+                existing.source += "|" + source;
+            }
+            return;
+        }
+        entries.put(key, new Entry(source, by, locator[0], locator[1]));
+    }
+
+    public void addAll(String source, List<By> locators) {
+        for (By by : locators) {
+            add(source, by);
+        }
+    }
+
+    // Selenium sends id, className, name and tagName as CSS; only link text stays WebDriver-only
+    private static String[] locatorOf(By by) {
+        if (by instanceof By.Remotable) {
+            By.Remotable.Parameters parameters = ((By.Remotable) by).getRemoteParameters();
+            return new String[]{parameters.using(), String.valueOf(parameters.value())};
+        }
+        return new String[]{by.getClass().getSimpleName(), by.toString()};
+    }
+
+    private static boolean inPage(String using) {
+        return "css selector".equals(using) || "xpath".equals(using);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Entry> run() {
+        List<Entry> profiled = new ArrayList<>(entries.values());
+        for (Entry entry : profiled) {
+            double[] timing = timeFindElements(entry.by);
+            entry.matches = (int) timing[0];
+            entry.medianMs = timing[1];
+            entry.p90Ms = timing[2];
+        }
+
+        List<Map<String, Object>> locators = new ArrayList<>();
+        List<Entry> inPageEntries = new ArrayList<>();
+        for (Entry entry : profiled) {
+            if (inPage(entry.using)) {
+                locators.add(Map.of("using", entry.using, "value", entry.value));
+                inPageEntries.add(entry);
+            }
+        }
+        List<List<Number>> inPage = (List<List<Number>>) ((JavascriptExecutor) driver).executeScript(
+            IN_PAGE_SCRIPT, locators, repetitions * 10);
+        for (int i = 0; i < inPageEntries.size(); i++) {
+            inPageEntries.get(i).inPageUs = inPage.get(i).get(1).doubleValue();
+        }
+
+        for (Entry entry : profiled) {
+            recommend(entry);
+        }
+
+        // Slowest first; among equals, the one touching more elements matters more
+        profiled.sort(Comparator.comparingDouble((Entry e) -> e.medianMs).reversed()
+                                .thenComparing(Comparator.comparingInt((Entry e) -> e.matches).reversed()));
+        return profiled;
+    }
+
+    // findElements round trips: [matches, median ms, p90 ms]
+    private double[] timeFindElements(By by) {
+        List<Double> times = new ArrayList<>();
+        int matches = 0;
+        for (int i = 0; i <= repetitions; i++) {
+            long start = System.nanoTime();
+            try {
+                matches = driver.findElements(by).size();
+            } catch (Exception e) {
+                matches = -1;
+            }
+            // The first run warms caches and is not counted
+            if (i > 0) {
+                times.add((System.nanoTime() - start) / 1_000_000.0);
+            }
+        }
+        Collections.sort(times);
+        return new double[]{matches, times.get(times.size() / 2), times.get((int) Math.ceil(times.size() * 0.9) - 1)};
+    }
+
+    private void recommend(Entry entry) {
+        if (entry.matches == 0) {
+            // Any rewrite that also matches nothing would pass the comparison, e.g. ".close" for ".modal .close"
+            entry.note = "no matches on this page";
+            return;
+        } else if (entry.matches < 0) {
+            entry.note = "invalid selector";
+            return;
+        }
+        if (!inPage(entry.using)) {
+            entry.note = join(entry.note, "not measurable in-page");
+            return;
+        }
+
+        Entry best = null;
+        String bestScope = "";
+        Map<String, String> candidates = candidates(entry);
+        for (String candidate : candidates.keySet()) {
+            Map<String, Object> original = Map.of("using", entry.using, "value", entry.value);
+            Map<String, Object> proposed = Map.of("using", "css selector", "value", candidate);
+            if (candidate.equals(entry.value) && "css selector".equals(entry.using)) {
+                continue;
+            }
+            if (!Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(COMPARE_SCRIPT, original, proposed))) {
+                continue;
+            }
+            Entry trial = new Entry(entry.source, By.cssSelector(candidate), "css selector", candidate);
+            trial.medianMs = timeFindElements(trial.by)[1];
+            trial.inPageUs = inPageMicros(candidate);
+            if (trial.inPageUs >= 0 && trial.inPageUs < entry.inPageUs * 0.8 && trial.medianMs <= entry.medianMs * 1.05
+                && (best == null || trial.inPageUs < best.inPageUs)) {
+                best = trial;
+                bestScope = candidates.get(candidate);
+            }
+        }
+        if (best != null) {
+            entry.recommendation = "By.cssSelector(\"" + best.value + "\")";
+            entry.recommendationScope = bestScope;
+            entry.recommendedMedianMs = best.medianMs;
+            entry.recommendedInPageUs = best.inPageUs;
+            entry.note = join(entry.note, (SCOPE_ANY_PAGE.equals(bestScope) ? "same elements, " : "same elements on this page only, ")
+                              + String.format("%.0f%%", 100 - best.inPageUs * 100 / Math.max(0.001, entry.inPageUs))
+                              + " cheaper in-page");
+            if (SCOPE_PAGE_SPECIFIC.equals(bestScope)) {
+                entry.note = join(entry.note, "profile the other pages the runner visits before adopting it");
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private double inPageMicros(String css) {
+        List<List<Number>> result = (List<List<Number>>) ((JavascriptExecutor) driver).executeScript(
+            IN_PAGE_SCRIPT, List.of(Map.of("using", "css selector", "value", css)), repetitions * 10);
+        return result.get(0).get(1).doubleValue();
+    }
+
+    // Equivalent-looking rewrites and their scope; each one is only kept if the page confirms it selects the same elements
+    private Map<String, String> candidates(Entry entry) {
+        Map<String, String> scoped = new LinkedHashMap<>();
+        if ("xpath".equals(entry.using)) {
+            Matcher m = SIMPLE_XPATH.matcher(entry.value.trim());
+            if (m.matches()) {
+                String tag = "*".equals(m.group(1)) ? "" : m.group(1);
+                if (m.group(2) == null) {
+                    scoped.put(tag.isEmpty() ? "*" : tag, SCOPE_ANY_PAGE);
+                } else if ("id".equals(m.group(2))) {
+                    scoped.put(tag + "#" + m.group(3), SCOPE_ANY_PAGE);
+                } else {
+                    scoped.put(tag + "[" + m.group(2) + "='" + m.group(3) + "']", SCOPE_ANY_PAGE);
+                }
+            }
+            return scoped;
+        }
+
+        Set<String> out = new LinkedHashSet<>();
+        List<String> groups = splitTopLevel(entry.value);
+        // Alternatives that match nothing cost a full document scan each
+        if (groups.size() > 1) {
+            List<String> live = new ArrayList<>();
+            for (String group : groups) {
+                if (inPageMatches(group) != 0) {
+                    live.add(group);
+                }
+            }
+            if (!live.isEmpty() && live.size() < groups.size()) {
+                out.add(String.join(", ", live));
+            }
+        }
+        // Ancestor qualifiers the page does not need
+        List<String> shortened = new ArrayList<>();
+        for (String group : groups) {
+            String[] parts = group.trim().split("\\s+");
+            shortened.add(parts.length > 1 && group.matches("[^>+~]*") ? parts[parts.length - 1] : group.trim());
+        }
+        out.add(String.join(", ", shortened));
+        // A single element with a unique id is the cheapest lookup there is
+        Object id = ((JavascriptExecutor) driver).executeScript(UNIQUE_ID_SCRIPT, entry.value);
+        if (id != null) {
+            out.add(String.valueOf(id));
+        }
+        // Dropped alternatives, ancestors or a unique id only hold for the markup this page happens to have
+        for (String candidate : out) {
+            scoped.put(candidate, SCOPE_PAGE_SPECIFIC);
+        }
+        return scoped;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int inPageMatches(String css) {
+        List<List<Number>> result = (List<List<Number>>) ((JavascriptExecutor) driver).executeScript(
+            IN_PAGE_SCRIPT, List.of(Map.of("using", "css selector", "value", css)), 1);
+        return result.get(0).get(0).intValue();
+    }
+
+    // Splits "a, b[x='1,2'], c" on the commas that separate selectors
+    static List<String> splitTopLevel(String selector) {
+        List<String> parts = new ArrayList<>();
+        int depth = 0;
+        char quote = 0;
+        StringBuilder current = new StringBuilder();
+        for (char c : selector.toCharArray()) {
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '(' || c == '[') {
+                depth++;
+            } else if (c == ')' || c == ']') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                parts.add(current.toString().trim());
+                current.setLength(0);
+                continue;
+            }
+            current.append(c);
+        }
+        parts.add(current.toString().trim());
+        return parts;
+    }
+
+    private static String join(String a, String b) {
+        return a.isEmpty() ? b : a + "; " + b;
+    }
+
+    public static void print(List<Entry> profiled) {
+        System.out.println("Rank  median ms  p90 ms  in-page µs  matches  locator");
+        int rank = 1;
+        for (Entry e : profiled) {
+            System.out.println(String.format("%4d  %9.2f  %6.2f  %10s  %7d  %s [%s]",
+                rank++, e.medianMs, e.p90Ms, e.inPageUs < 0 ? "-" : String.format("%.1f", e.inPageUs),
+                e.matches, e.by, e.source));
+            if (!e.recommendation.isEmpty()) {
+                System.out.println("        " + (SCOPE_ANY_PAGE.equals(e.recommendationScope) ? "💡 " : "⚠️ ")
+                                   + e.recommendation + " [" + e.recommendationScope + "] (" + e.note + ")");
+            } else if (!e.note.isEmpty()) {
+                System.out.println("        ⚠️ " + e.note);
+            }
+        }
+    }
+
+    public static void write(List<Entry> profiled, Path csvPath) throws IOException {
+        try (CSVWriter writer = new CSVWriter(new FileWriter(csvPath.toFile()))) {
+            writer.writeNext(HEADER);
+            for (Entry e : profiled) {
+                writer.writeNext(new String[]{
+                    e.source, e.using, e.value, String.valueOf(e.matches),
+                    String.format("%.3f", e.medianMs), String.format("%.3f", e.p90Ms),
+                    e.inPageUs < 0 ? "" : String.format("%.1f", e.inPageUs),
+                    e.recommendation,
+                    e.recommendationScope,
+                    e.recommendedMedianMs < 0 ? "" : String.format("%.3f", e.recommendedMedianMs),
+                    e.recommendedInPageUs < 0 ? "" : String.format("%.1f", e.recommendedInPageUs),
+                    e.note
+                });
+            }
+        }
+    }
+}
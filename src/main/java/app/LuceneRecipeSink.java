@@ -0,0 +1,188 @@
+package app;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.store.FSDirectory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+public class LuceneRecipeSink implements RecipeSink {
+    static final String DEFAULT_DIR = "output/recipe-index";
+    static final List<String> TEXT_FIELDS = List.of("title", "description", "ingredients", "dietary_tags");
+    static final String KEY_FIELD = "key";
+    static final String CATEGORY_FACET = "category";
+    static final String PRICE_CENTS = "price_cents";
+
+    private static final String[] END = new String[0];
+
+    private final IndexWriter indexWriter;
+    private final FacetsConfig facetsConfig = facetsConfig();
+    private final BlockingQueue<String[]> queue;
+    private final Thread indexer;
+    private final int commitEvery;
+    private final int urlColumn = RecipeSchema.indexOf("url");
+    private final int titleColumn = RecipeSchema.indexOf("title");
+    private volatile IOException failure;
+    private int indexed = 0;
+
+    public LuceneRecipeSink(Path indexDir, int commitEvery) throws IOException {
+        Files.createDirectories(indexDir);
+        IndexWriterConfig config = new IndexWriterConfig(new StandardAnalyzer());
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        this.indexWriter = new IndexWriter(FSDirectory.open(indexDir), config);
+        this.commitEvery = Math.max(1, commitEvery);
+        this.queue = new ArrayBlockingQueue<>(10_000);
+        this.indexer = new Thread(this::drain, "lucene-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+        System.out.println("✓ Lucene index: " + indexDir.toAbsolutePath());
+    }
+
+    // Shared with RecipeSearch so drill-downs see the same dimension settings
+    static FacetsConfig facetsConfig() {
+        FacetsConfig config = new FacetsConfig();
+        config.setMultiValued(CATEGORY_FACET, true);
+        return config;
+    }
+
+    public static LuceneRecipeSink fromProperties() throws IOException {
+        return new LuceneRecipeSink(Paths.get(System.getProperty("lucene.dir", DEFAULT_DIR)),
+                                    Integer.getInteger("lucene.commitEvery", 200));
+    }
+
+    // Called on the scrape thread: hand the row over and return
+    @Override
+    public void write(String[] row) throws IOException {
+        String[] copy = row.clone();
+        try {
+            // A dead indexer never drains the queue, so never block on it indefinitely
+            while (!queue.offer(copy, 1, TimeUnit.SECONDS)) {
+                checkIndexer();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing row for indexing", e);
+        }
+        checkIndexer();
+    }
+
+    private void checkIndexer() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (!indexer.isAlive()) {
+            throw new IOException("Lucene indexer has stopped");
+        }
+    }
+
+    private void drain() {
+        int uncommitted = 0;
+        try {
+            while (true) {
+                String[] row = queue.poll(2, TimeUnit.SECONDS);
+                if (row == END) {
+                    break;
+                }
+                if (row != null) {
+                    index(row);
+                    uncommitted++;
+                }
+                // Commit on batch size, or when the scraper goes quiet between pages
+                if (uncommitted >= commitEvery || (row == null && uncommitted > 0)) {
+                    indexWriter.commit();
+                    uncommitted = 0;
+                }
+            }
+            indexWriter.commit();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            // Anything else ends the indexer; write() and close() report it instead of waiting on the queue
+            failure = e instanceof IOException ? (IOException) e : new IOException("Indexing failed", e);
+            System.err.println("Error indexing recipes: " + e);
+        }
+    }
+
+    private void index(String[] row) throws IOException {
+        String key = ScrapeDiff.recipeKey(row, urlColumn, titleColumn);
+        if (key.isEmpty()) {
+            return;
+        }
+        Document doc = new Document();
+        doc.add(new StringField(KEY_FIELD, key, Field.Store.YES));
+        for (String field : TEXT_FIELDS) {
+            doc.add(new TextField(field, value(row, field), Field.Store.YES));
+        }
+        for (String field : List.of("price", "price_currency", "price_unit", "url", "image_url", "scraped_at", "source_page", "image_local_path")) {
+            doc.add(new StoredField(field, value(row, field)));
+        }
+        String category = value(row, "category");
+        if (!category.isEmpty()) {
+            doc.add(new StoredField("category", category));
+            // Merged recipes carry "Keto|High Protein": one facet value per category
+            for (String single : category.split(Pattern.quote(RecipeMergeSink.CATEGORY_SEPARATOR))) {
+                if (!single.isBlank()) {
+                    doc.add(new SortedSetDocValuesFacetField(CATEGORY_FACET, single.trim()));
+                }
+            }
+        }
+        long cents = priceCents(value(row, "price_amount"));
+        if (cents >= 0) {
+            doc.add(new NumericDocValuesField(PRICE_CENTS, cents));
+        }
+        // Re-scraped recipes replace their earlier document instead of piling up
+        indexWriter.updateDocument(new Term(KEY_FIELD, key), facetsConfig.build(doc));
+        indexed++;
+    }
+
+    // From RecipeNormalizer's price_amount; -1 when the price could not be parsed
+    static long priceCents(String amount) {
+        try {
+            return new BigDecimal(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String value(String[] row, String column) {
+        int i = RecipeSchema.indexOf(column);
+        return i < 0 || i >= row.length || row[i] == null ? "" : row[i];
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            while (indexer.isAlive() && !queue.offer(END, 1, TimeUnit.SECONDS)) {
+                // Queue still full; keep waiting while the indexer is draining it
+            }
+            indexer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        indexWriter.close();
+        System.out.println("✓ Lucene index: " + indexed + " recipes indexed");
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package app;
 
-import com.opencsv.CSVWriter;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.*;
 import org.openqa.selenium.chrome.ChromeDriver;
@@ -9,7 +8,6 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -20,12 +18,61 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 public class Main {
+    // Comprehensive list of GreenChef URLs to scrape (MonitorDaemon re-scrapes the same list)
+    static final List<String> TARGET_URLS = List.of(
+        "https://www.greenchef.com/",
+        "https://www.greenchef.com/menus",
+        "https://www.greenchef.com/menu",
+        "https://www.greenchef.com/pages/menus-and-plans",
+        "https://www.greenchef.com/recipes",
+        "https://www.greenchef.com/keto",
+        "https://www.greenchef.com/plant-based",
+        "https://www.greenchef.com/mediterranean",
+        "https://www.greenchef.com/gluten-free",
+        "https://www.greenchef.com/high-protein",
+        "https://www.greenchef.com/quick-easy",
+        "https://www.greenchef.com/calorie-smart"
+    );
+    
+    // Locators are shared with LocatorProfiler, which times them against the live page
+    static final List<By> PAGINATION_SELECTORS = List.of(
+        By.cssSelector("button[aria-label*='Next']"),
+        By.cssSelector(".pagination-next, .next-page"),
+        By.cssSelector("[data-test*='next'], [data-testid*='next']"),
+        By.xpath("//button[contains(., 'Next') or contains(., 'More')]"),
+        By.xpath("//a[contains(., 'Next') or contains(., 'More')]")
+    );
+    
+    // Common cookie/marketing modal close buttons
+    static final List<By> OVERLAY_SELECTORS = List.of(
+        By.cssSelector("button[aria-label='Close']"),
+        By.cssSelector(".modal .close, .modal .close-btn"),
+        By.cssSelector(".overlay .close, .overlay .close-btn"),
+        By.cssSelector("#onetrust-accept-btn-handler"),
+        By.cssSelector(".cookie, .cookies, .cookie-banner button"),
+        By.cssSelector("[data-test*='close'], [data-testid*='close']"),
+        By.cssSelector(".popup-close, .banner-close")
+    );
+    
     private static final Set<String> visitedUrls = new HashSet<>();
+    private static final Set<String> structuredKeys = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Integer> capturedPerPage = new ConcurrentHashMap<>();
+    private static volatile String currentSourceUrl = "";
     private static int totalItemsScraped = 0;
     
+    private static RuleExtractor ruleExtractor;
+    private static Waits waits;
+    private static DeadlineScheduler scheduler;
+    private static CircuitBreakers breakers;
+    // By page URL, so a network-captured row arriving late is flagged with its own page's shed phases
+    private static final Map<String, DeadlineScheduler.PageBudget> pageBudgets = new ConcurrentHashMap<>();
+    
     public static void main(String[] args) {
         System.out.println("=== GreenChef Comprehensive Web Scraper ===");
         System.out.println("Starting comprehensive data extraction...");
@@ -42,7 +89,11 @@ public class Main {
         // options.addArguments("--headless=new"); // Uncomment for headless runs
 
         WebDriver driver = new ChromeDriver(options);
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(30));
+        NetworkArchive networkArchive = NetworkArchive.attachFromProperties(driver, "main");
+        ruleExtractor = new RuleExtractor(driver);
+        waits = new Waits(driver);
+        scheduler = DeadlineScheduler.fromProperties();
+        breakers = CircuitBreakers.fromProperties();
 
         Path outDir = Paths.get("output");
         try {
@@ -58,256 +109,491 @@ public class Main {
         Path homepagePng = outDir.resolve("homepage_" + timestamp + ".png");
         Path homepageHtml = outDir.resolve("homepage_" + timestamp + ".html");
 
-        try (CSVWriter writer = new CSVWriter(new FileWriter(csvPath.toFile()))) {
-            // Enhanced CSV header with comprehensive fields
-            String[] header = new String[]{
-                "id", "title", "description", "price", "calories", "servings", 
-                "cook_time", "difficulty", "ingredients", "dietary_tags", 
-                "category", "url", "image_url", "scraped_at", "source_page"
-            };
-            writer.writeNext(header);
+        // CSV by default; -Dsinks=csv,sqlite also records the run in the embedded database
+        RunDatabase database = RunDatabase.fromProperties("main");
+        try (RecipeSink sink = CompositeRecipeSink.fromProperties(csvPath, database)) {
 
-            // Comprehensive list of GreenChef URLs to scrape
-            List<String> targetUrls = List.of(
-                "https://www.greenchef.com/",
-                "https://www.greenchef.com/menus",
-                "https://www.greenchef.com/menu",
-                "https://www.greenchef.com/pages/menus-and-plans",
-                "https://www.greenchef.com/recipes",
-                "https://www.greenchef.com/keto",
-                "https://www.greenchef.com/plant-based",
-                "https://www.greenchef.com/mediterranean",
-                "https://www.greenchef.com/gluten-free",
-                "https://www.greenchef.com/high-protein",
-                "https://www.greenchef.com/quick-easy",
-                "https://www.greenchef.com/calorie-smart"
-            );
+            // Optional: map matching XHR/fetch JSON responses straight to rows as they arrive
+            NetworkCapture capture = null;
+            List<Pattern> capturePatterns = NetworkCapture.patternsFromProperty("capture.patterns");
+            if (!capturePatterns.isEmpty()) {
+                capture = new NetworkCapture(driver, capturePatterns, () -> currentSourceUrl, (apiUrl, sourceUrl, fields) -> {
+                    DeadlineScheduler.PageBudget pageBudget = pageBudgets.get(sourceUrl);
+                    if (!writeStructuredRow(sink, fields, sourceUrl, timestamp, pageBudget == null ? "" : pageBudget.shedPhases())) {
+                        return false;
+                    }
+                    capturedPerPage.merge(sourceUrl, 1, Integer::sum);
+                    return true;
+                });
+                capture.start();
+            }
 
-            for (String url : targetUrls) {
+            // Tab mode drives extra tabs over their own CDP sessions, which capture and HAR archives do not see
+            int tabs = TabPool.sizeFromProperties();
+            if (tabs > 1 && (capture != null || networkArchive != null)) {
+                System.out.println("⚠️ Tab mode needs network capture and HAR archives off, scraping sequentially");
+                tabs = 0;
+            }
+            if (tabs > 1) {
+                scrapeInTabs(driver, sink, timestamp, tabs);
+            }
+            
+            for (String url : tabs > 1 ? List.<String>of() : TARGET_URLS) {
                 if (visitedUrls.contains(url)) continue;
                 visitedUrls.add(url);
+                if (scheduler.runExpired()) {
+                    System.out.println("⏱️ Run budget exhausted, skipping: " + url);
+                    scheduler.skipped();
+                    continue;
+                }
+                if (!breakers.allow(url)) {
+                    continue;
+                }
+                DeadlineScheduler.PageBudget budget = scheduler.startPage(url);
+                pageBudgets.put(url, budget);
+                currentSourceUrl = url;
                 
                 System.out.println("Scraping: " + url);
                 try {
-                    scrapeUrlComprehensively(driver, wait, writer, url, timestamp);
+                    scrapeUrlComprehensively(driver, sink, url, timestamp, budget);
                 } catch (Exception e) {
                     System.err.println("Error scraping " + url + ": " + e.getMessage());
                     // Continue with next URL
                 }
             }
 
-            // Save final page source and screenshot
-            savePageArtifacts(driver, homepageHtml, homepagePng);
+            if (capture != null) {
+                capture.stop();
+            }
+
+            // Save final page source, and the screenshot if the run budget still allows it
+            DeadlineScheduler.PageBudget finalBudget = scheduler.finalPhase();
+            savePageArtifacts(driver, homepageHtml, finalBudget.shouldRun(DeadlineScheduler.Phase.SCREENSHOT) ? homepagePng : null);
 
             System.out.println("\n=== SCRAPING COMPLETE ===");
             System.out.println("Total items scraped: " + totalItemsScraped);
-            System.out.println("CSV: " + csvPath.toAbsolutePath());
+            ruleExtractor.printStats();
+            waits.printStats();
+            scheduler.printStats();
+            breakers.printStats();
+            
+            // Change-only delta against the previous run
+            sink.flush();
+            if (Files.exists(csvPath)) {
+                ScrapeDiff.diffAgainstPrevious(csvPath);
+                System.out.println("CSV: " + csvPath.toAbsolutePath());
+            }
             System.out.println("HTML: " + homepageHtml.toAbsolutePath());
-            System.out.println("PNG:  " + homepagePng.toAbsolutePath());
+            if (Files.exists(homepagePng)) {
+                System.out.println("PNG:  " + homepagePng.toAbsolutePath());
+            }
             
         } catch (IOException e) {
             throw new RuntimeException("Error writing CSV or files", e);
         } finally {
+            if (networkArchive != null) {
+                networkArchive.close();
+            }
+            if (database != null) {
+                database.close();
+            }
             driver.quit();
         }
     }
     
-    private static void scrapeUrlComprehensively(WebDriver driver, WebDriverWait wait, 
-                                                CSVWriter writer, String url, String timestamp) {
+    private static void scrapeUrlComprehensively(WebDriver driver, RecipeSink sink, String url, String timestamp,
+                                                 DeadlineScheduler.PageBudget budget) {
+        Duration defaultPageLoadTimeout = driver.manage().timeouts().getPageLoadTimeout();
         try {
-            driver.get(url);
-            wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+            // Every wait on this page is bounded by what is left of its budget
+            WebDriverWait wait = new WebDriverWait(driver, budget.cap(Duration.ofSeconds(30)));
+            driver.manage().timeouts().pageLoadTimeout(Duration.ofMillis(Math.max(1000, budget.remainingMs())));
+            long loadStart = System.currentTimeMillis();
+            boolean loaded = true;
+            try {
+                driver.get(url);
+            } catch (TimeoutException e) {
+                // Keep whatever has rendered so far
+                budget.markPartial("load");
+                loaded = false;
+            }
+            try {
+                wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+            } catch (Exception e) {
+                breakers.record(url, false, System.currentTimeMillis() - loadStart);
+                throw e;
+            }
+            // Only the load counts towards the breaker; settling, scrolling and pagination are this page's own busyness
+            breakers.record(url, loaded, System.currentTimeMillis() - loadStart);
+            waits.pageSettled(budget.cap(Duration.ofSeconds(10)));
             
             // Handle overlays and popups
             closeOverlayIfPresent(driver, wait);
-            Thread.sleep(2000); // Allow page to settle
+            
+            // Both phases are decided before anything is extracted, so every row of the page carries the same shed_phases;
+            // pagination first, as it only runs if scrolling still fits after it
+            boolean paginate = budget.shouldRun(DeadlineScheduler.Phase.PAGINATION);
             
             // Perform comprehensive scrolling to load all content
-            performComprehensiveScroll(driver);
+            if (budget.shouldRun(DeadlineScheduler.Phase.SCROLL)) {
+                long start = System.currentTimeMillis();
+                performComprehensiveScroll(driver, budget);
+                budget.ran(DeadlineScheduler.Phase.SCROLL, System.currentTimeMillis() - start);
+            }
             
             // Extract all possible content types
-            extractAllContentTypes(driver, writer, url, timestamp);
+            extractAllContentTypes(driver, sink, url, timestamp, budget);
             
             // Try to find and follow pagination
-            handlePagination(driver, wait, writer, url, timestamp);
+            if (paginate) {
+                long start = System.currentTimeMillis();
+                handlePagination(driver, sink, url, timestamp, budget);
+                budget.ran(DeadlineScheduler.Phase.PAGINATION, System.currentTimeMillis() - start);
+            }
             
+            if (budget.isPartial()) {
+                System.out.println("  ⏱️ Partial page (" + budget.shedPhases() + "), " + budget.remainingMs() + " ms left");
+            }
         } catch (Exception e) {
             System.err.println("Error in comprehensive scraping of " + url + ": " + e.getMessage());
+        } finally {
+            // The budget's timeout is only for this page; savePageArtifacts and the next page start from the default
+            try {
+                driver.manage().timeouts().pageLoadTimeout(defaultPageLoadTimeout);
+            } catch (Exception e) {
+                // Session gone
+            }
+        }
+    }
+    
+    // Every URL in a pool tab: load, overlays, scroll, extraction and pagination, each phase a single in-page call
+    private static void scrapeInTabs(WebDriver driver, RecipeSink sink, String timestamp, int tabs) {
+        List<String> urls = new ArrayList<>();
+        for (String url : TARGET_URLS) {
+            if (visitedUrls.add(url)) {
+                urls.add(url);
+            }
+        }
+        String rulesExpression = ruleExtractor.pageExpression();
+        long start = System.currentTimeMillis();
+        try (TabPool pool = new TabPool(driver, tabs)) {
+            pool.map(urls, (tab, url) -> scrapeInTab(tab, sink, url, timestamp, rulesExpression), (url, error) -> {
+                System.err.println("Error scraping " + url + " in tab: " + error);
+                return 0;
+            });
+        } catch (Exception e) {
+            System.err.println("Error in tab mode: " + e.getMessage());
+        }
+        System.out.println("✓ " + urls.size() + " URLs across " + tabs + " tabs in " + (System.currentTimeMillis() - start) + " ms");
+        
+        // The pool tabs are gone; the main window, still blank, loads the homepage for savePageArtifacts
+        try {
+            driver.get(TARGET_URLS.get(0));
+            waits.pageSettled(Duration.ofSeconds(10));
+        } catch (Exception e) {
+            System.err.println("Error loading homepage for artifacts: " + e.getMessage());
+        }
+    }
+    
+    private static int scrapeInTab(TabPool.Tab tab, RecipeSink sink, String url, String timestamp, String rulesExpression) {
+        if (scheduler.runExpired()) {
+            System.out.println("⏱️ Run budget exhausted, skipping: " + url);
+            scheduler.skipped();
+            return 0;
+        }
+        if (!breakers.allow(url)) {
+            return 0;
+        }
+        DeadlineScheduler.PageBudget budget = scheduler.startPage(url);
+        System.out.println("Scraping in tab: " + url);
+        
+        long loadStart = System.currentTimeMillis();
+        Object navigation;
+        try {
+            if (!tab.navigate(url, budget.cap(Duration.ofSeconds(30)))) {
+                // Timed out or never settled: keep whatever has rendered so far
+                budget.markPartial("load");
+            }
+            // navigate() also waits for the page to settle; the breaker only gets the browser's own load time
+            navigation = tab.evaluate(CircuitBreakers.NAVIGATION_EXPRESSION, Duration.ofSeconds(5));
+        } catch (Exception e) {
+            breakers.record(url, false, System.currentTimeMillis() - loadStart);
+            System.err.println("Error loading " + url + " in tab: " + e.getMessage());
+            return 0;
+        }
+        breakers.recordNavigation(navigation, url);
+        
+        // The same phases as scrapeUrlComprehensively, each as one in-page call
+        try {
+            if (tab.clickFirstVisible(OVERLAY_SELECTORS, Duration.ofSeconds(5))) {
+                tab.settle(budget.cap(Duration.ofSeconds(2)));
+            }
+        } catch (Exception e) {
+            // No overlay to close
+        }
+        boolean paginate = budget.shouldRun(DeadlineScheduler.Phase.PAGINATION);
+        if (budget.shouldRun(DeadlineScheduler.Phase.SCROLL)) {
+            long start = System.currentTimeMillis();
+            try {
+                if (!tab.scrollToEnd(10, budget.cap(Duration.ofSeconds(30)))) {
+                    budget.truncated(DeadlineScheduler.Phase.SCROLL);
+                }
+            } catch (Exception e) {
+                System.err.println("Error scrolling " + url + " in tab: " + e.getMessage());
+            }
+            budget.ran(DeadlineScheduler.Phase.SCROLL, System.currentTimeMillis() - start);
+        }
+        
+        int written = extractInTab(tab, sink, url, timestamp, rulesExpression, budget);
+        if (paginate) {
+            long start = System.currentTimeMillis();
+            written += paginateInTab(tab, sink, url, timestamp, rulesExpression, budget);
+            budget.ran(DeadlineScheduler.Phase.PAGINATION, System.currentTimeMillis() - start);
+        }
+        return written;
+    }
+    
+    private static int extractInTab(TabPool.Tab tab, RecipeSink sink, String sourceUrl, String timestamp, String rulesExpression,
+                                    DeadlineScheduler.PageBudget budget) {
+        int written = 0;
+        try {
+            List<Map<String, String>> recipes = StructuredDataExtractor.fromPayloads(
+                tab.evaluate(StructuredDataExtractor.PAYLOAD_EXPRESSION, budget.cap(Duration.ofSeconds(10))), tab.url());
+            if (recipes.isEmpty()) {
+                recipes = RuleExtractor.toRows(tab.evaluate(rulesExpression, budget.cap(Duration.ofSeconds(10))));
+            }
+            for (Map<String, String> fields : recipes) {
+                boolean meaningful = !fields.getOrDefault("title", "").isEmpty() || !fields.getOrDefault("price", "").isEmpty()
+                                     || !fields.getOrDefault("description", "").isEmpty();
+                if (meaningful && firstSighting(fields, sourceUrl)) {
+                    writeRow(sink, toRow(fields, sourceUrl, timestamp, budget.shedPhases()));
+                    written++;
+                }
+            }
+            System.out.println("  ✓ " + sourceUrl + ": " + recipes.size() + " recipes, " + written + " new rows");
+        } catch (Exception e) {
+            System.err.println("Error extracting " + sourceUrl + " in tab: " + e.getMessage());
+        }
+        return written;
+    }
+    
+    // handlePagination's walk: up to 5 further pages through the same "Next"/"More" selectors
+    private static int paginateInTab(TabPool.Tab tab, RecipeSink sink, String baseUrl, String timestamp, String rulesExpression,
+                                     DeadlineScheduler.PageBudget budget) {
+        int written = 0;
+        try {
+            for (int page = 1; page <= 5; page++) {
+                if (budget.expired()) {
+                    budget.truncated(DeadlineScheduler.Phase.PAGINATION);
+                    break;
+                }
+                String beforeClick = tab.url();
+                if (!tab.clickFirstVisible(PAGINATION_SELECTORS, Duration.ofSeconds(5))) {
+                    break;
+                }
+                // A "Load more" stays on the URL and only needs the DOM to settle
+                String afterClick = tab.urlChange(beforeClick, budget.cap(Duration.ofSeconds(1)));
+                tab.settle(budget.cap(Duration.ofSeconds(10)));
+                if (!afterClick.isEmpty()) {
+                    breakers.recordNavigation(tab.evaluate(CircuitBreakers.NAVIGATION_EXPRESSION, Duration.ofSeconds(5)), "");
+                }
+                written += extractInTab(tab, sink, baseUrl + "?page=" + (page + 1), timestamp, rulesExpression, budget);
+            }
+        } catch (Exception e) {
+            System.err.println("Error in pagination of " + baseUrl + " in tab: " + e.getMessage());
         }
+        return written;
     }
     
-    private static void performComprehensiveScroll(WebDriver driver) {
+    private static void performComprehensiveScroll(WebDriver driver, DeadlineScheduler.PageBudget budget) {
         try {
             // Scroll to bottom multiple times to trigger lazy loading
+            long previousHeight = -1;
             for (int i = 0; i < 10; i++) {
+                if (budget.expired()) {
+                    budget.truncated(DeadlineScheduler.Phase.SCROLL);
+                    break;
+                }
                 ((JavascriptExecutor) driver).executeScript("window.scrollTo(0, document.body.scrollHeight);");
-                Thread.sleep(1500);
+                // Lazy loads fetch first, then render
+                waits.networkIdle(0, Duration.ofMillis(300), budget.cap(Duration.ofSeconds(3)));
+                waits.domQuiet(Duration.ofMillis(200), budget.cap(Duration.ofSeconds(2)));
                 
-                // Check if new content loaded
-                long currentHeight = (Long) ((JavascriptExecutor) driver).executeScript("return document.body.scrollHeight");
-                if (i > 0) {
-                    long previousHeight = (Long) ((JavascriptExecutor) driver).executeScript("return arguments[0]", currentHeight);
-                    if (currentHeight == previousHeight) break;
-                }
+                // Stop once a scroll no longer loads new content
+                long currentHeight = ((Number) ((JavascriptExecutor) driver).executeScript("return document.body.scrollHeight")).longValue();
+                if (currentHeight == previousHeight) break;
+                previousHeight = currentHeight;
             }
             
             // Scroll back to top
             ((JavascriptExecutor) driver).executeScript("window.scrollTo(0, 0);");
-            Thread.sleep(1000);
         } catch (Exception e) {
             System.err.println("Error during scrolling: " + e.getMessage());
         }
     }
     
-    private static void extractAllContentTypes(WebDriver driver, CSVWriter writer, String sourceUrl, String timestamp) {
-        // Multiple selector strategies for different content types
-        List<By> contentSelectors = List.of(
-            // Recipe cards
-            By.cssSelector("[data-test*='recipe'], [data-testid*='recipe']"),
-            By.cssSelector("article[class*='recipe'], div[class*='recipe']"),
-            By.cssSelector(".recipe-card, .meal-card, .menu-item"),
-            By.cssSelector("a[href*='/recipes/']"),
-            // Menu items
-            By.cssSelector(".menu-item, .meal-plan-item"),
-            By.cssSelector("[class*='menu'], [class*='meal']"),
-            // Product cards
-            By.cssSelector(".product-card, .card"),
-            By.cssSelector("[class*='product'], [class*='item']"),
-            // Generic content
-            By.cssSelector("h1, h2, h3, h4"),
-            By.cssSelector("a[href*='greenchef']")
-        );
+    private static void extractAllContentTypes(WebDriver driver, RecipeSink sink, String sourceUrl, String timestamp,
+                                               DeadlineScheduler.PageBudget budget) {
+        // Rows already captured from the page's API responses make DOM extraction unnecessary
+        if (capturedPerPage.getOrDefault(currentSourceUrl, 0) > 0) {
+            System.out.println("  ✓ " + capturedPerPage.get(currentSourceUrl) + " rows captured from network, skipping DOM");
+            return;
+        }
         
-        for (By selector : contentSelectors) {
-            try {
-                List<WebElement> elements = driver.findElements(selector);
-                for (WebElement element : elements) {
-                    try {
-                        extractElementData(element, writer, sourceUrl, timestamp);
-                    } catch (StaleElementReferenceException e) {
-                        // Skip stale elements
-                        continue;
-                    }
-                }
-            } catch (Exception e) {
-                // Continue with next selector
+        // Fast path: recipes embedded as JSON-LD or framework hydration payloads
+        if (extractStructuredData(driver, sink, sourceUrl, timestamp, budget)) {
+            return;
+        }
+        
+        // Container and field selectors come from the rules file and run as one in-page call
+        try {
+            for (Map<String, String> fields : ruleExtractor.extractPage()) {
+                writeExtractedRow(sink, fields, sourceUrl, timestamp, budget.shedPhases());
             }
+        } catch (Exception e) {
+            System.err.println("Error extracting content: " + e.getMessage());
         }
     }
     
-    private static void extractElementData(WebElement element, CSVWriter writer, String sourceUrl, String timestamp) {
+    private static boolean extractStructuredData(WebDriver driver, RecipeSink sink, String sourceUrl, String timestamp,
+                                                 DeadlineScheduler.PageBudget budget) {
+        List<Map<String, String>> recipes;
         try {
-            String id = String.valueOf(totalItemsScraped + 1);
-            String title = extractTextWithFallback(element, List.of(
-                "h1", "h2", "h3", "h4", ".title", ".name", ".card-title", 
-                "[data-test*='title'], [data-testid*='title']"
-            ));
-            
-            String description = extractTextWithFallback(element, List.of(
-                "p", ".description", ".desc", ".summary", ".card-description",
-                "[data-test*='description'], [data-testid*='description']"
-            ));
-            
-            String price = extractTextWithFallback(element, List.of(
-                ".price", ".cost", ".amount", "[class*='price']",
-                "[data-test*='price'], [data-testid*='price']"
-            ));
-            
-            String calories = extractTextWithFallback(element, List.of(
-                ".calories", ".cal", "[class*='calorie']",
-                "[data-test*='calorie'], [data-testid*='calorie']"
-            ));
-            
-            String servings = extractTextWithFallback(element, List.of(
-                ".servings", ".serving", "[class*='serving']",
-                "[data-test*='serving'], [data-testid*='serving']"
-            ));
-            
-            String cookTime = extractTextWithFallback(element, List.of(
-                ".time", ".cook-time", ".duration", "[class*='time']",
-                "[data-test*='time'], [data-testid*='time']"
-            ));
-            
-            String difficulty = extractTextWithFallback(element, List.of(
-                ".difficulty", ".level", "[class*='difficulty']",
-                "[data-test*='difficulty'], [data-testid*='difficulty']"
-            ));
-            
-            String ingredients = extractTextWithFallback(element, List.of(
-                ".ingredients", ".ingredient-list", "[class*='ingredient']",
-                "[data-test*='ingredient'], [data-testid*='ingredient']"
-            ));
-            
-            String dietaryTags = extractTextWithFallback(element, List.of(
-                ".tags", ".dietary", ".badges", "[class*='tag']",
-                "[data-test*='tag'], [data-testid*='tag']"
-            ));
-            
-            String category = extractCategoryFromUrl(sourceUrl);
-            
-            String url = extractHrefWithFallback(element, List.of("a"));
-            
-            String imageUrl = extractImageUrl(element);
-            
-            // Only write if we have meaningful data
-            if (!title.isEmpty() || !description.isEmpty() || !price.isEmpty()) {
-                String[] row = {
-                    id, title, description, price, calories, servings, cookTime, difficulty,
-                    ingredients, dietaryTags, category, url, imageUrl, timestamp, sourceUrl
-                };
-                writer.writeNext(row);
-                totalItemsScraped++;
-                
-                if (totalItemsScraped % 10 == 0) {
-                    System.out.println("Scraped " + totalItemsScraped + " items so far...");
-                }
-            }
+            recipes = StructuredDataExtractor.extract(driver);
         } catch (Exception e) {
-            // Skip problematic elements
+            System.err.println("Error reading structured data: " + e.getMessage());
+            return false;
+        }
+        if (recipes.isEmpty()) {
+            return false;
+        }
+        
+        // DOM heuristics only for the fields the payload did not provide, and only for recipes not written yet
+        List<Map<String, String>> unseen = new ArrayList<>();
+        for (Map<String, String> fields : recipes) {
+            String key = dedupKey(fields, sourceUrl);
+            if (key.isEmpty() || !structuredKeys.contains(key)) {
+                unseen.add(fields);
+            }
+        }
+        fillMissingFieldsFromDom(unseen);
+        
+        int written = 0;
+        for (Map<String, String> fields : recipes) {
+            if (writeStructuredRow(sink, fields, sourceUrl, timestamp, budget.shedPhases())) {
+                written++;
+            }
         }
+        System.out.println("  ✓ Structured data: " + recipes.size() + " recipes found, " + written + " new rows");
+        return true;
     }
     
-    private static String extractTextWithFallback(WebElement base, List<String> selectors) {
-        for (String selector : selectors) {
-            try {
-                WebElement el = base.findElement(By.cssSelector(selector));
-                String text = el.getText();
-                if (text != null && !text.trim().isEmpty()) {
-                    return text.trim();
-                }
-            } catch (NoSuchElementException e) {
-                // Try next selector
-            }
+    private static String recipeKey(Map<String, String> fields) {
+        String url = fields.getOrDefault("url", "");
+        return !url.isEmpty() ? url : fields.getOrDefault("title", "");
+    }
+    
+    // With -Dmerge the same recipe under another category page is passed on, so RecipeMergeSink can record the category
+    // Empty when the recipe has neither URL nor title, so there is nothing to recognise it by
+    private static String dedupKey(Map<String, String> fields, String sourceUrl) {
+        String key = recipeKey(fields);
+        return RecipeMergeSink.enabled() && !key.isEmpty() ? key + "|" + extractCategoryFromUrl(sourceUrl) : key;
+    }
+    
+    // Recipes without a key are always written rather than all collapsing into the first one
+    private static boolean firstSighting(Map<String, String> fields, String sourceUrl) {
+        String key = dedupKey(fields, sourceUrl);
+        return key.isEmpty() || structuredKeys.add(key);
+    }
+    
+    private static boolean writeStructuredRow(RecipeSink sink, Map<String, String> fields, String sourceUrl, String timestamp,
+                                              String shedPhases) {
+        if (!firstSighting(fields, sourceUrl)) {
+            return false; // Same recipe from another payload, response or a repeated pagination page
         }
-        return "";
+        writeRow(sink, toRow(fields, sourceUrl, timestamp, shedPhases));
+        return true;
     }
     
-    private static String extractHrefWithFallback(WebElement base, List<String> selectors) {
-        for (String selector : selectors) {
-            try {
-                WebElement el = base.findElement(By.cssSelector(selector));
-                String href = el.getAttribute("href");
-                if (href != null && !href.trim().isEmpty()) {
-                    return href.trim();
+    // One in-page call for the whole page: each recipe's card is found by its URL and only its empty fields are taken
+    private static void fillMissingFieldsFromDom(List<Map<String, String>> recipes) {
+        List<Map<String, String>> incomplete = new ArrayList<>();
+        List<String> urls = new ArrayList<>();
+        for (Map<String, String> fields : recipes) {
+            String url = fields.getOrDefault("url", "");
+            if (url.isEmpty()) {
+                continue;
+            }
+            for (String field : ruleExtractor.getFieldNames()) {
+                if (fields.getOrDefault(field, "").isEmpty()) {
+                    incomplete.add(fields);
+                    urls.add(url);
+                    break;
+                }
+            }
+        }
+        if (incomplete.isEmpty()) {
+            return;
+        }
+        
+        try {
+            List<Map<String, String>> cards = ruleExtractor.extractCards(urls);
+            for (int i = 0; i < incomplete.size() && i < cards.size(); i++) {
+                Map<String, String> fromDom = cards.get(i);
+                if (fromDom == null) {
+                    continue;
+                }
+                for (Map.Entry<String, String> field : fromDom.entrySet()) {
+                    if (incomplete.get(i).getOrDefault(field.getKey(), "").isEmpty()) {
+                        incomplete.get(i).put(field.getKey(), field.getValue());
+                    }
                 }
-            } catch (NoSuchElementException e) {
-                // Try next selector
             }
+        } catch (Exception e) {
+            // Keep what the payloads gave us
+        }
+    }
+    
+    private static void writeExtractedRow(RecipeSink sink, Map<String, String> fields, String sourceUrl, String timestamp,
+                                          String shedPhases) {
+        String title = fields.getOrDefault("title", "");
+        String description = fields.getOrDefault("description", "");
+        String price = fields.getOrDefault("price", "");
+        
+        // Only write if we have meaningful data
+        if (!title.isEmpty() || !description.isEmpty() || !price.isEmpty()) {
+            writeRow(sink, toRow(fields, sourceUrl, timestamp, shedPhases));
         }
-        return "";
     }
     
-    private static String extractImageUrl(WebElement element) {
+    static String[] toRow(Map<String, String> fields, String sourceUrl, String timestamp) {
+        return toRow(fields, sourceUrl, timestamp, "");
+    }
+    
+    // shedPhases: what the row's page did not get, see DeadlineScheduler.PageBudget.shedPhases()
+    static String[] toRow(Map<String, String> fields, String sourceUrl, String timestamp, String shedPhases) {
+        return new String[]{
+            "", fields.getOrDefault("title", ""), fields.getOrDefault("description", ""), fields.getOrDefault("price", ""),
+            fields.getOrDefault("calories", ""), fields.getOrDefault("servings", ""), fields.getOrDefault("cook_time", ""),
+            fields.getOrDefault("difficulty", ""), fields.getOrDefault("ingredients", ""), fields.getOrDefault("dietary_tags", ""),
+            extractCategoryFromUrl(sourceUrl), fields.getOrDefault("url", ""), fields.getOrDefault("image_url", ""),
+            timestamp, sourceUrl, "", shedPhases
+        };
+    }
+    
+    private static synchronized void writeRow(RecipeSink sink, String[] row) {
+        row[0] = String.valueOf(totalItemsScraped + 1);
         try {
-            WebElement img = element.findElement(By.cssSelector("img"));
-            String src = img.getAttribute("src");
-            if (src != null && !src.trim().isEmpty()) {
-                return src.trim();
-            }
-        } catch (NoSuchElementException e) {
-            // No image found
+            sink.write(row);
+        } catch (IOException e) {
+            System.err.println("Error writing row: " + e.getMessage());
+            return;
+        }
+        totalItemsScraped++;
+        
+        if (totalItemsScraped % 10 == 0) {
+            System.out.println("Scraped " + totalItemsScraped + " items so far...");
         }
-        return "";
     }
     
     private static String extractCategoryFromUrl(String url) {
@@ -323,24 +609,21 @@ public class Main {
         return "General";
     }
     
-    private static void handlePagination(WebDriver driver, WebDriverWait wait, CSVWriter writer, String baseUrl, String timestamp) {
+    private static void handlePagination(WebDriver driver, RecipeSink sink, String baseUrl, String timestamp,
+                                         DeadlineScheduler.PageBudget budget) {
         try {
-            // Look for pagination elements
-            List<By> paginationSelectors = List.of(
-                By.cssSelector("button[aria-label*='Next']"),
-                By.cssSelector(".pagination-next, .next-page"),
-                By.cssSelector("[data-test*='next'], [data-testid*='next']"),
-                By.xpath("//button[contains(., 'Next') or contains(., 'More')]"),
-                By.xpath("//a[contains(., 'Next') or contains(., 'More')]")
-            );
-            
             for (int page = 1; page <= 5; page++) { // Limit to 5 pages per URL
+                if (budget.expired()) {
+                    budget.truncated(DeadlineScheduler.Phase.PAGINATION);
+                    break;
+                }
                 WebElement nextButton = null;
-                for (By selector : paginationSelectors) {
+                PageModel model = PageModel.capture(driver);
+                for (By selector : PAGINATION_SELECTORS) {
                     try {
-                        List<WebElement> buttons = driver.findElements(selector);
+                        List<WebElement> buttons = model.find(selector);
                         for (WebElement btn : buttons) {
-                            if (btn.isDisplayed() && btn.isEnabled()) {
+                            if (model.isVisible(btn) && model.isEnabled(btn)) {
                                 nextButton = btn;
                                 break;
                             }
@@ -355,11 +638,15 @@ public class Main {
                 
                 // Click next page
                 try {
+                    String beforeClick = driver.getCurrentUrl();
                     ((JavascriptExecutor) driver).executeScript("arguments[0].click();", nextButton);
-                    Thread.sleep(3000); // Wait for page load
+                    waits.afterClick(beforeClick, budget.cap(Duration.ofSeconds(10)));
+                    if (!beforeClick.equals(driver.getCurrentUrl())) {
+                        breakers.recordNavigation(driver, "");
+                    }
                     
                     // Extract content from new page
-                    extractAllContentTypes(driver, writer, baseUrl + "?page=" + (page + 1), timestamp);
+                    extractAllContentTypes(driver, sink, baseUrl + "?page=" + (page + 1), timestamp, budget);
                     
                 } catch (Exception e) {
                     System.err.println("Error clicking pagination: " + e.getMessage());
@@ -374,6 +661,9 @@ public class Main {
     private static void savePageArtifacts(WebDriver driver, Path html, Path png) {
         try {
             Files.writeString(html, driver.getPageSource());
+            if (png == null) {
+                return;
+            }
             File shot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
             Files.copy(shot.toPath(), png);
         } catch (IOException e) {
@@ -383,24 +673,15 @@ public class Main {
 
     private static void closeOverlayIfPresent(WebDriver driver, WebDriverWait wait) {
         try {
-            // Common cookie/marketing modal close buttons
-            List<By> candidates = List.of(
-                By.cssSelector("button[aria-label='Close']"),
-                By.cssSelector(".modal .close, .modal .close-btn"),
-                By.cssSelector(".overlay .close, .overlay .close-btn"),
-                By.cssSelector("#onetrust-accept-btn-handler"),
-                By.cssSelector(".cookie, .cookies, .cookie-banner button"),
-                By.cssSelector("[data-test*='close'], [data-testid*='close']"),
-                By.cssSelector(".popup-close, .banner-close")
-            );
-            for (By by : candidates) {
-                List<WebElement> els = driver.findElements(by);
+            PageModel model = PageModel.capture(driver);
+            for (By by : OVERLAY_SELECTORS) {
+                List<WebElement> els = model.find(by);
                 if (!els.isEmpty()) {
                     WebElement el = els.get(0);
-                    if (el.isDisplayed() && el.isEnabled()) {
+                    if (model.isVisible(el) && model.isEnabled(el)) {
                         try {
                             el.click();
-                            Thread.sleep(1000);
+                            waits.domQuiet(Duration.ofMillis(300), Duration.ofSeconds(2));
                         } catch (Exception e) {
                             // Try JavaScript click
                             ((JavascriptExecutor) driver).executeScript("arguments[0].click();", el);
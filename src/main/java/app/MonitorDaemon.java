@@ -0,0 +1,413 @@
+package app;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Long-running mode: re-scrapes Main's URLs, re-checks links and re-runs the section navigation tests on a schedule,
+// emitting only what changed
+public class MonitorDaemon {
+    private static final Json JSON = new Json();
+    // Columns that change on every scrape and say nothing about the recipe; category and source_page depend on
+    // which listing the recipe was seen on, and one recipe keyed by URL is listed on several
+    private static final List<String> VOLATILE_COLUMNS = List.of(
+        "id", "scraped_at", "shed_phases", "image_local_path", "category", "source_page");
+
+    private final DriverPool pool;
+    private final EventLog events;
+    private final LinkVerifier verifier;
+    private final CircuitBreakers breakers = CircuitBreakers.fromProperties();
+    private final List<String> linkPages;
+    private final List<String> navSections;
+    // Both maps are LRU-bounded so memory stays flat however long the daemon runs
+    private final Map<String, Integer> recipeFingerprints;
+    private final Map<String, String> failingLinks;
+    private final Map<String, String> failingSections;
+    // 64-bit hashes of every recipe key seen, kept far longer than the fingerprints: a recipe evicted from
+    // recipeFingerprints is re-learned silently instead of coming back as recipe_added
+    private final Set<Long> seenRecipes;
+    // A page's first scrape that returned rows is its baseline and emits nothing; one that errored never counts
+    private final Set<String> baselinedPages = ConcurrentHashMap.newKeySet();
+    private long cycles = 0;
+
+    public MonitorDaemon(DriverPool pool, EventLog events, List<String> linkPages, List<String> navSections, int maxTracked) {
+        this.pool = pool;
+        this.events = events;
+        this.linkPages = linkPages;
+        this.navSections = navSections;
+        this.verifier = new LinkVerifier(Integer.getInteger("links.concurrency", 16), Duration.ofSeconds(10));
+        this.recipeFingerprints = boundedMap(maxTracked);
+        this.failingLinks = boundedMap(maxTracked);
+        this.failingSections = boundedMap(maxTracked);
+        this.seenRecipes = Collections.synchronizedSet(SessionHealth.boundedSet(maxTracked * 4));
+    }
+
+    public static void main(String[] args) {
+        System.out.println("=== GreenChef Monitor Daemon ===");
+        int scrapeMinutes = Integer.getInteger("daemon.scrapeMinutes", 60);
+        int linkMinutes = Integer.getInteger("daemon.linkMinutes", 15);
+        int navMinutes = Integer.getInteger("daemon.navMinutes", 60);
+
+        DriverPool pool = new DriverPool(
+            Integer.getInteger("daemon.sessions", 2),
+            Integer.getInteger("daemon.sessionMaxUses", 50),
+            Duration.ofHours(Long.getLong("daemon.sessionMaxHours", 6)),
+            Boolean.parseBoolean(System.getProperty("daemon.headless", "true")));
+        EventLog events = new EventLog(Paths.get("output"));
+        MonitorDaemon daemon = new MonitorDaemon(pool, events,
+            List.of(System.getProperty("daemon.linkPages", "https://www.greenchef.com/").split(",")),
+            navSectionsFromProperties(),
+            Integer.getInteger("daemon.maxTracked", 50_000));
+
+        // One thread per job: a slow scrape never delays link checks, and a job never overlaps itself
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(3);
+        scheduler.scheduleWithFixedDelay(daemon::safeScrapeCycle, 0, scrapeMinutes, TimeUnit.MINUTES);
+        scheduler.scheduleWithFixedDelay(daemon::safeLinkCycle, 1, linkMinutes, TimeUnit.MINUTES);
+        scheduler.scheduleWithFixedDelay(daemon::safeNavCycle, 2, navMinutes, TimeUnit.MINUTES);
+        System.out.println("✓ Scraping every " + scrapeMinutes + " min, checking links every " + linkMinutes
+                           + " min, navigation tests every " + navMinutes + " min");
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Stopping monitor...");
+            scheduler.shutdownNow();
+            daemon.verifier.shutdown();
+            pool.close();
+            events.close();
+        }));
+    }
+
+    private void safeScrapeCycle() {
+        try {
+            scrapeCycle();
+        } catch (Exception e) {
+            // An escaped exception would cancel every future run of this job
+            System.err.println("Error in scrape cycle: " + e.getMessage());
+        }
+    }
+
+    private void safeLinkCycle() {
+        try {
+            linkCycle();
+        } catch (Exception e) {
+            System.err.println("Error in link cycle: " + e.getMessage());
+        }
+    }
+
+    private void safeNavCycle() {
+        try {
+            navCycle();
+        } catch (Exception e) {
+            System.err.println("Error in navigation cycle: " + e.getMessage());
+        }
+    }
+
+    // -Ddaemon.navSections="Recipes,Keto" selects sections; SystematicNavigationTester's list by default
+    private static List<String> navSectionsFromProperties() {
+        String configured = System.getProperty("daemon.navSections", "");
+        if (configured.isBlank()) {
+            return SystematicNavigationTester.TARGET_SECTIONS;
+        }
+        List<String> sections = new java.util.ArrayList<>();
+        for (String section : configured.split(",")) {
+            if (!section.isBlank()) {
+                sections.add(section.trim());
+            }
+        }
+        return sections;
+    }
+
+    void scrapeCycle() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        int seen = 0;
+        int changed = 0;
+        for (String url : Main.TARGET_URLS) {
+            if (!breakers.allow(url)) {
+                continue;
+            }
+            DriverPool.Session session = pool.borrow(Duration.ofMinutes(5));
+            boolean healthy = true;
+            try {
+                boolean baseline = !baselinedPages.contains(url);
+                List<String[]> rows = scrape(session, url, timestamp);
+                for (String[] row : rows) {
+                    seen++;
+                    if (compare(row, baseline)) {
+                        changed++;
+                    }
+                }
+                if (baseline && !rows.isEmpty()) {
+                    baselinedPages.add(url);
+                    System.out.println("✓ Baseline: " + rows.size() + " recipes on " + url);
+                }
+            } catch (Exception e) {
+                healthy = false;
+                System.err.println("Error monitoring " + url + ": " + e.getMessage());
+            } finally {
+                pool.release(session, healthy);
+            }
+        }
+        cycles++;
+        if (cycles % 24 == 0) {
+            breakers.printStats();
+        }
+        System.out.println("✓ Scrape cycle " + cycles + ": " + seen + " rows, " + changed + " changed in "
+                           + (System.currentTimeMillis() - start) / 1000 + " s");
+    }
+
+    private List<String[]> scrape(DriverPool.Session session, String url, String timestamp) {
+        load(session, url);
+
+        // Same order as Main: structured payloads first, then the compiled DOM rules
+        List<Map<String, String>> recipes = StructuredDataExtractor.extract(session.driver);
+        if (recipes.isEmpty()) {
+            recipes = session.rules().extractPage();
+        }
+        List<String[]> rows = new java.util.ArrayList<>();
+        for (Map<String, String> fields : recipes) {
+            if (!fields.getOrDefault("title", "").isEmpty() || !fields.getOrDefault("price", "").isEmpty()) {
+                rows.add(Main.toRow(fields, url, timestamp));
+            }
+        }
+        return rows;
+    }
+
+    private void load(DriverPool.Session session, String url) {
+        long start = System.currentTimeMillis();
+        try {
+            session.driver.get(url);
+        } catch (RuntimeException e) {
+            breakers.record(url, false, System.currentTimeMillis() - start);
+            throw e;
+        }
+        breakers.record(url, true, System.currentTimeMillis() - start);
+        session.waits.pageSettled(Duration.ofSeconds(15));
+    }
+
+    // True when the row is new or differs from the last version seen; a baseline row only records its fingerprint
+    private boolean compare(String[] row, boolean baseline) {
+        String key = ScrapeDiff.recipeKey(row, RecipeSchema.indexOf("url"), RecipeSchema.indexOf("title"));
+        if (key.isEmpty()) {
+            return false;
+        }
+        String[] stable = row.clone();
+        for (String column : VOLATILE_COLUMNS) {
+            int i = RecipeSchema.indexOf(column);
+            if (i >= 0 && i < stable.length) {
+                stable[i] = "";
+            }
+        }
+        int fingerprint = Arrays.hashCode(stable);
+        Integer previous = recipeFingerprints.put(key, fingerprint);
+        boolean seenBefore = !seenRecipes.add(keyHash(key));
+        if (baseline || (previous != null && previous == fingerprint)) {
+            return false;
+        }
+        if (previous == null && seenBefore) {
+            // Evicted from the fingerprints: its last version is unknown, so neither added nor changed
+            return false;
+        }
+
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < RecipeSchema.HEADER.length && i < row.length; i++) {
+            fields.put(RecipeSchema.HEADER[i], row[i]);
+        }
+        events.emit(previous == null ? "recipe_added" : "recipe_changed", key, fields);
+        return true;
+    }
+
+    // FNV-1a, so the seen set holds a long per recipe instead of its URL
+    private static long keyHash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    void linkCycle() throws InterruptedException {
+        int checked = 0;
+        for (String page : linkPages) {
+            if (!breakers.allow(page.trim())) {
+                continue;
+            }
+            DriverPool.Session session = pool.borrow(Duration.ofMinutes(5));
+            Map<String, String> links;
+            boolean healthy = true;
+            try {
+                load(session, page.trim());
+                links = LinkVerifier.collectLinks(session.driver);
+            } catch (Exception e) {
+                healthy = false;
+                System.err.println("Error collecting links from " + page + ": " + e.getMessage());
+                continue;
+            } finally {
+                pool.release(session, healthy);
+            }
+
+            // HTTP checks need no browser, so the session is already back in the pool
+            for (LinkVerifier.LinkResult result : verifier.verifyAll(links)) {
+                checked++;
+                String previous = failingLinks.get(result.href);
+                if (!result.isSuccess() && previous == null) {
+                    failingLinks.put(result.href, describe(result));
+                    events.emit("link_failing", result.href, Map.of(
+                        "page", page, "text", result.text, "status", result.status,
+                        "error", result.error, "latency_ms", result.latencyMs));
+                } else if (result.isSuccess() && previous != null) {
+                    failingLinks.remove(result.href);
+                    events.emit("link_recovered", result.href, Map.of(
+                        "page", page, "status", result.status, "was", previous));
+                }
+            }
+        }
+        System.out.println("✓ Link cycle: " + checked + " links, " + failingLinks.size() + " failing");
+    }
+
+    // SystematicNavigationTester's direct navigation test: the section's link is still on the first link page,
+    // and following it loads a page
+    void navCycle() throws InterruptedException {
+        String home = linkPages.get(0).trim();
+        if (!breakers.allow(home)) {
+            return;
+        }
+        DriverPool.Session session = pool.borrow(Duration.ofMinutes(5));
+        boolean healthy = true;
+        int failing = 0;
+        try {
+            load(session, home);
+            LinkIndex index = LinkIndex.build(session.driver, home);
+            for (String section : navSections) {
+                String failure = testSection(session, index, section);
+                if (failure == null) {
+                    String previous = failingSections.remove(section);
+                    if (previous != null) {
+                        events.emit("navigation_recovered", section, Map.of("page", home, "was", previous));
+                    }
+                } else if (!failure.isEmpty()) {
+                    failing++;
+                    if (failingSections.put(section, failure) == null) {
+                        events.emit("navigation_failing", section, Map.of("page", home, "error", failure));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            healthy = false;
+            System.err.println("Error running navigation tests from " + home + ": " + e.getMessage());
+        } finally {
+            pool.release(session, healthy);
+        }
+        System.out.println("✓ Navigation cycle: " + navSections.size() + " sections, " + failing + " failing");
+    }
+
+    // Null when the section navigates, "" when its circuit is open (no verdict), otherwise the failure
+    private String testSection(DriverPool.Session session, LinkIndex index, String section) {
+        List<LinkIndex.Entry> entries = index.find(section, null, "link", "nav");
+        LinkIndex.Entry target = null;
+        for (LinkIndex.Entry entry : entries) {
+            if (!entry.href.isEmpty()) {
+                target = entry;
+                break;
+            }
+        }
+        if (target == null) {
+            return "no link for section on page";
+        }
+        if (!breakers.allow(target.href)) {
+            return "";
+        }
+        try {
+            load(session, target.href);
+            return null;
+        } catch (Exception e) {
+            return target.href + ": " + e.getClass().getSimpleName();
+        }
+    }
+
+    private static String describe(LinkVerifier.LinkResult result) {
+        return result.status > 0 ? "HTTP " + result.status : result.error;
+    }
+
+    private static <K, V> Map<K, V> boundedMap(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    // Local output channel: one JSON object per line, one file per day, easy to tail or ship
+    static class EventLog {
+        private final Path dir;
+        private LocalDate day;
+        private BufferedWriter writer;
+
+        EventLog(Path dir) {
+            this.dir = dir;
+        }
+
+        synchronized void emit(String type, String key, Map<String, Object> detail) {
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("time", LocalDateTime.now().toString());
+            event.put("type", type);
+            event.put("key", key);
+            event.put("detail", detail);
+            String line = JSON.toJson(event).replaceAll("\\s*\\n\\s*", " ");
+            System.out.println("📣 " + type + ": " + key);
+            try {
+                rollIfNeeded();
+                writer.write(line);
+                writer.newLine();
+                writer.flush();
+            } catch (IOException e) {
+                System.err.println("Error writing monitor event: " + e.getMessage());
+            }
+        }
+
+        private void rollIfNeeded() throws IOException {
+            LocalDate today = LocalDate.now();
+            if (writer != null && today.equals(day)) {
+                return;
+            }
+            close();
+            Files.createDirectories(dir);
+            day = today;
+            writer = Files.newBufferedWriter(
+                dir.resolve("monitor_events_" + today.format(DateTimeFormatter.BASIC_ISO_DATE) + ".jsonl"),
+                StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+
+        synchronized void close() {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    // Nothing left to flush
+                }
+                writer = null;
+            }
+        }
+    }
+}
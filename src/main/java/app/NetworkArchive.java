@@ -0,0 +1,376 @@
+package app;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class NetworkArchive {
+    private static final Json JSON = new Json();
+
+    // The current session's; attach() moves the archive to a recycled browser
+    private volatile DevTools devTools;
+    private final String runName;
+    private final boolean recording;
+    private final boolean originalTiming;
+    // Requests still in flight while recording, keyed by CDP requestId
+    private final Map<String, Map<String, Object>> inFlight = new ConcurrentHashMap<>();
+    private final List<Map<String, Object>> entries = new ArrayList<>();
+    // Recorded responses for replay, keyed by "METHOD url" and by "METHOD url-without-query"
+    private final Map<String, Deque<Map<String, Object>>> replayIndex = new ConcurrentHashMap<>();
+    // CDP commands are never sent from the event thread itself
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor();
+    private volatile long firstRequestMs = -1;
+    // Wall clock of the first request replayed, which lines up with the recording's _offsetMs 0
+    private volatile long replayStartMs = -1;
+    private int served = 0;
+    private int missed = 0;
+
+    private NetworkArchive(WebDriver driver, String runName, boolean recording, boolean originalTiming) {
+        this.devTools = ((HasDevTools) driver).getDevTools();
+        this.runName = runName;
+        this.recording = recording;
+        this.originalTiming = originalTiming;
+    }
+
+    // -Dhar.record=true records the run, -Dhar.replay=<file> serves a recording back with no network
+    public static NetworkArchive attachFromProperties(WebDriver driver, String runName) {
+        try {
+            String replayFile = System.getProperty("har.replay", "");
+            if (!replayFile.isEmpty()) {
+                boolean originalTiming = "original".equals(System.getProperty("har.replay.timing", "fast"));
+                NetworkArchive archive = new NetworkArchive(driver, runName, false, originalTiming);
+                archive.startReplay(Paths.get(replayFile));
+                return archive;
+            }
+            if (Boolean.getBoolean("har.record")) {
+                NetworkArchive archive = new NetworkArchive(driver, runName, true, false);
+                archive.startRecording();
+                return archive;
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Network archive disabled: " + e.getMessage());
+        }
+        return null;
+    }
+
+    // A recycled browser keeps recording into, or replaying from, this archive, so a run is always a single file
+    public void attach(WebDriver driver) {
+        devTools = ((HasDevTools) driver).getDevTools();
+        // Requests of the old browser will never finish
+        inFlight.clear();
+        try {
+            if (recording) {
+                listenForRecording(devTools);
+            } else {
+                interceptForReplay(devTools);
+            }
+            System.out.println((recording ? "⏺️  Recording" : "⏯️  Replaying") + " continues in the new session");
+        } catch (Exception e) {
+            System.err.println("❌ Network archive not attached to the new session: " + e.getMessage());
+        }
+    }
+
+    private void startRecording() {
+        listenForRecording(devTools);
+        System.out.println("⏺️  Recording network traffic for " + runName);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void listenForRecording(DevTools devTools) {
+        devTools.createSessionIfThereIsNotOne();
+        devTools.send(new Command<>("Network.enable", Map.of()));
+
+        devTools.addListener(NetworkCapture.mapEvent("Network.requestWillBeSent"), event -> {
+            String requestId = String.valueOf(event.get("requestId"));
+            Map<String, Object> redirect = (Map<String, Object>) event.get("redirectResponse");
+            if (redirect != null) {
+                // A redirect reuses the requestId, so close the previous hop with its 3xx response
+                Map<String, Object> previous = inFlight.remove(requestId);
+                if (previous != null) {
+                    previous.put("response", response(redirect, null));
+                    previous.put("time", elapsedMs(previous, event.get("timestamp")));
+                    addEntry(previous);
+                }
+            }
+            Map<String, Object> request = (Map<String, Object>) event.get("request");
+            long wallMs = (long) (((Number) event.get("wallTime")).doubleValue() * 1000);
+            if (firstRequestMs < 0) {
+                firstRequestMs = wallMs;
+            }
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("startedDateTime", Instant.ofEpochMilli(wallMs).toString());
+            entry.put("_offsetMs", wallMs - firstRequestMs);
+            entry.put("_monotonic", event.get("timestamp"));
+            Map<String, Object> harRequest = new LinkedHashMap<>();
+            harRequest.put("method", request.get("method"));
+            harRequest.put("url", request.get("url"));
+            harRequest.put("headers", headers((Map<String, Object>) request.get("headers")));
+            if (request.get("postData") != null) {
+                harRequest.put("postData", Map.of("text", request.get("postData")));
+            }
+            entry.put("request", harRequest);
+            inFlight.put(requestId, entry);
+        });
+
+        devTools.addListener(NetworkCapture.mapEvent("Network.responseReceived"), event -> {
+            Map<String, Object> entry = inFlight.get(String.valueOf(event.get("requestId")));
+            if (entry != null) {
+                entry.put("_response", event.get("response"));
+            }
+        });
+
+        devTools.addListener(NetworkCapture.mapEvent("Network.loadingFinished"), event -> {
+            String requestId = String.valueOf(event.get("requestId"));
+            Map<String, Object> entry = inFlight.remove(requestId);
+            if (entry == null) {
+                return;
+            }
+            entry.put("time", elapsedMs(entry, event.get("timestamp")));
+            if (worker.isShutdown()) {
+                return; // close() is already writing the archive
+            }
+            worker.submit(() -> {
+                String body = null;
+                try {
+                    Map<String, Object> result = devTools.send(new Command<Map<String, Object>>(
+                        "Network.getResponseBody", Map.of("requestId", requestId), Json.MAP_TYPE));
+                    body = String.valueOf(result.get("body"));
+                    if (!Boolean.TRUE.equals(result.get("base64Encoded"))) {
+                        body = Base64.getEncoder().encodeToString(body.getBytes(StandardCharsets.UTF_8));
+                    }
+                } catch (Exception e) {
+                    // Some bodies (e.g. evicted or streamed) cannot be read back
+                }
+                Map<String, Object> raw = (Map<String, Object>) entry.remove("_response");
+                entry.put("response", raw == null ? emptyResponse() : response(raw, body));
+                addEntry(entry);
+            });
+        });
+
+        devTools.addListener(NetworkCapture.mapEvent("Network.loadingFailed"), event -> {
+            Map<String, Object> entry = inFlight.remove(String.valueOf(event.get("requestId")));
+            if (entry != null) {
+                entry.remove("_response");
+                entry.put("time", elapsedMs(entry, event.get("timestamp")));
+                entry.put("response", emptyResponse());
+                entry.put("_error", event.get("errorText"));
+                addEntry(entry);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private void startReplay(Path archive) throws IOException {
+        try (Reader reader = new InputStreamReader(new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8)) {
+            Map<String, Object> har = JSON.toType(reader, Json.MAP_TYPE);
+            List<Map<String, Object>> recorded = (List<Map<String, Object>>) ((Map<String, Object>) har.get("log")).get("entries");
+            for (Map<String, Object> entry : recorded) {
+                Map<String, Object> request = (Map<String, Object>) entry.get("request");
+                String method = String.valueOf(request.get("method"));
+                String url = String.valueOf(request.get("url"));
+                replayIndex.computeIfAbsent(method + " " + url, k -> new ArrayDeque<>()).add(entry);
+                replayIndex.computeIfAbsent(method + " " + stripQuery(url), k -> new ArrayDeque<>()).add(entry);
+            }
+            System.out.println("⏯️  Replaying " + recorded.size() + " recorded requests from " + archive.getFileName()
+                               + (originalTiming ? " with original timing" : " as fast as possible"));
+        }
+        interceptForReplay(devTools);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void interceptForReplay(DevTools devTools) {
+        devTools.createSessionIfThereIsNotOne();
+        devTools.addListener(NetworkCapture.mapEvent("Fetch.requestPaused"), event -> {
+            Map<String, Object> request = (Map<String, Object>) event.get("request");
+            String requestId = String.valueOf(event.get("requestId"));
+            String method = String.valueOf(request.get("method"));
+            String url = String.valueOf(request.get("url"));
+
+            Map<String, Object> entry = nextRecorded(method + " " + url);
+            if (entry == null) {
+                entry = nextRecorded(method + " " + stripQuery(url));
+            }
+            Map<String, Object> recordedEntry = entry;
+            if (!worker.isShutdown()) {
+                worker.schedule(() -> fulfill(devTools, requestId, url, recordedEntry), replayDelayMs(entry), TimeUnit.MILLISECONDS);
+            }
+        });
+        devTools.send(new Command<>("Fetch.enable", Map.of("patterns", List.of(Map.of("urlPattern", "*")))));
+    }
+
+    // Original timing answers no earlier than the response finished in the recording, measured from the first request;
+    // a replay that has fallen behind the recording gets its responses straight away
+    private long replayDelayMs(Map<String, Object> entry) {
+        long now = System.currentTimeMillis();
+        if (replayStartMs < 0) {
+            replayStartMs = now;
+        }
+        if (!originalTiming || entry == null) {
+            return 0;
+        }
+        long offset = ((Number) entry.getOrDefault("_offsetMs", 0)).longValue();
+        long time = ((Number) entry.getOrDefault("time", 0)).longValue();
+        return Math.max(0, replayStartMs + offset + time - now);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fulfill(DevTools devTools, String requestId, String url, Map<String, Object> entry) {
+        try {
+            Map<String, Object> response = entry == null ? null : (Map<String, Object>) entry.get("response");
+            if (response == null || ((Number) response.get("status")).intValue() == 0) {
+                missed++;
+                devTools.send(new Command<>("Fetch.failRequest",
+                    Map.of("requestId", requestId, "errorReason", "InternetDisconnected")));
+                return;
+            }
+
+            List<Map<String, Object>> responseHeaders = new ArrayList<>();
+            for (Map<String, Object> header : (List<Map<String, Object>>) response.get("headers")) {
+                String name = String.valueOf(header.get("name")).toLowerCase();
+                // The stored body is already decoded, so length and encoding headers no longer apply
+                if (!name.equals("content-encoding") && !name.equals("content-length")) {
+                    responseHeaders.add(header);
+                }
+            }
+            Map<String, Object> content = (Map<String, Object>) response.get("content");
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("requestId", requestId);
+            params.put("responseCode", ((Number) response.get("status")).intValue());
+            params.put("responseHeaders", responseHeaders);
+            params.put("body", content.get("text") == null ? "" : content.get("text"));
+            devTools.send(new Command<>("Fetch.fulfillRequest", params));
+            served++;
+        } catch (Exception e) {
+            System.err.println("Error replaying " + url + ": " + e.getMessage());
+        }
+    }
+
+    // Repeated requests get the recorded responses in order; the last one keeps being served
+    private Map<String, Object> nextRecorded(String key) {
+        Deque<Map<String, Object>> queue = replayIndex.get(key);
+        if (queue == null) {
+            return null;
+        }
+        synchronized (queue) {
+            return queue.size() > 1 ? queue.poll() : queue.peek();
+        }
+    }
+
+    public void close() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!recording) {
+            System.out.println("⏯️  Replay served " + served + " requests, " + missed + " unmatched");
+            return;
+        }
+
+        try {
+            Path outDir = Paths.get("output");
+            Files.createDirectories(outDir);
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            Path archive = outDir.resolve(runName + "_" + timestamp + ".har.gz");
+
+            Map<String, Object> log = new LinkedHashMap<>();
+            log.put("version", "1.2");
+            log.put("creator", Map.of("name", "selenium-scraper", "version", "1.0"));
+            synchronized (entries) {
+                log.put("entries", entries);
+                try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(archive)), StandardCharsets.UTF_8)) {
+                    writer.write(JSON.toJson(Map.of("log", log)));
+                }
+                System.out.println("⏺️  Recorded " + entries.size() + " requests: " + archive.toAbsolutePath());
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing network archive: " + e.getMessage());
+        }
+    }
+
+    private void addEntry(Map<String, Object> entry) {
+        entry.remove("_monotonic");
+        synchronized (entries) {
+            entries.add(entry);
+        }
+    }
+
+    private static long elapsedMs(Map<String, Object> entry, Object endTimestamp) {
+        Object start = entry.get("_monotonic");
+        if (!(start instanceof Number) || !(endTimestamp instanceof Number)) {
+            return 0;
+        }
+        return Math.round((((Number) endTimestamp).doubleValue() - ((Number) start).doubleValue()) * 1000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> response(Map<String, Object> raw, String base64Body) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", raw.get("status"));
+        response.put("statusText", raw.getOrDefault("statusText", ""));
+        response.put("headers", headers((Map<String, Object>) raw.get("headers")));
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("mimeType", raw.getOrDefault("mimeType", ""));
+        if (base64Body != null) {
+            content.put("text", base64Body);
+            content.put("encoding", "base64");
+        }
+        response.put("content", content);
+        return response;
+    }
+
+    private static Map<String, Object> emptyResponse() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", 0);
+        response.put("statusText", "");
+        response.put("headers", List.of());
+        response.put("content", Map.of("mimeType", ""));
+        return response;
+    }
+
+    private static List<Map<String, Object>> headers(Map<String, Object> headers) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        if (headers != null) {
+            for (Map.Entry<String, Object> header : headers.entrySet()) {
+                list.add(Map.of("name", header.getKey(), "value", String.valueOf(header.getValue())));
+            }
+        }
+        return list;
+    }
+
+    private static String stripQuery(String url) {
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+}
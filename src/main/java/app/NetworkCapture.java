@@ -0,0 +1,294 @@
+package app;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+public class NetworkCapture {
+    // True when the recipe was kept, false when the receiver dropped it (e.g. as a duplicate)
+    public interface RecipeListener {
+        boolean accept(String apiUrl, String sourceUrl, Map<String, String> fields);
+    }
+
+    private final DevTools devTools;
+    private final List<Pattern> urlPatterns;
+    private final Supplier<String> currentPage;
+    private final RecipeListener onRecipe;
+    private final ResponseMapping mapping = ResponseMapping.fromProperties();
+    private final Map<String, String> pendingResponses = new ConcurrentHashMap<>();
+    // The page being scraped when each matching request started; its response may only arrive after the next page began
+    private final Map<String, String> requestPages = new ConcurrentHashMap<>();
+    // Bodies are fetched off the DevTools event thread so listeners never block on a reply
+    // Daemon, so a run that fails before stop() still lets the JVM exit
+    private final ExecutorService bodyFetcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "network-capture");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger matchedResponses = new AtomicInteger();
+    private final AtomicInteger recipesCaptured = new AtomicInteger();
+
+    public NetworkCapture(WebDriver driver, List<Pattern> urlPatterns, Supplier<String> currentPage, RecipeListener onRecipe) {
+        this.devTools = ((HasDevTools) driver).getDevTools();
+        this.urlPatterns = urlPatterns;
+        this.currentPage = currentPage;
+        this.onRecipe = onRecipe;
+    }
+
+    public static List<Pattern> patternsFromProperty(String property) {
+        List<Pattern> patterns = new ArrayList<>();
+        String value = System.getProperty(property, "");
+        for (String pattern : value.split(",")) {
+            if (!pattern.trim().isEmpty()) {
+                patterns.add(Pattern.compile(pattern.trim()));
+            }
+        }
+        return patterns;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void start() {
+        devTools.createSessionIfThereIsNotOne();
+        devTools.send(new Command<>("Network.enable", Map.of()));
+
+        devTools.addListener(mapEvent("Network.requestWillBeSent"), event -> {
+            Map<String, Object> request = (Map<String, Object>) event.get("request");
+            String requestId = String.valueOf(event.get("requestId"));
+            // A redirect reuses the requestId and keeps the page the first hop started on
+            if (request != null && matches(String.valueOf(request.get("url"))) && !requestPages.containsKey(requestId)) {
+                requestPages.put(requestId, currentPage.get());
+            }
+        });
+
+        devTools.addListener(mapEvent("Network.responseReceived"), event -> {
+            Map<String, Object> response = (Map<String, Object>) event.get("response");
+            String url = String.valueOf(response.get("url"));
+            String mimeType = String.valueOf(response.get("mimeType"));
+            if (mimeType.contains("json") && matches(url)) {
+                pendingResponses.put(String.valueOf(event.get("requestId")), url);
+            }
+        });
+
+        // The body is only complete once loading has finished
+        devTools.addListener(mapEvent("Network.loadingFinished"), event -> {
+            String requestId = String.valueOf(event.get("requestId"));
+            String url = pendingResponses.remove(requestId);
+            String page = requestPages.remove(requestId);
+            if (url != null && !bodyFetcher.isShutdown()) {
+                String sourceUrl = page != null ? page : currentPage.get();
+                bodyFetcher.submit(() -> handleBody(requestId, url, sourceUrl));
+            }
+        });
+        devTools.addListener(mapEvent("Network.loadingFailed"), event -> {
+            pendingResponses.remove(String.valueOf(event.get("requestId")));
+            requestPages.remove(String.valueOf(event.get("requestId")));
+        });
+
+        System.out.println("✓ Network capture enabled for " + urlPatterns);
+    }
+
+    private void handleBody(String requestId, String url, String sourceUrl) {
+        try {
+            Map<String, Object> result = devTools.send(new Command<Map<String, Object>>(
+                "Network.getResponseBody", Map.of("requestId", requestId), Json.MAP_TYPE));
+            String body = String.valueOf(result.get("body"));
+            if (Boolean.TRUE.equals(result.get("base64Encoded"))) {
+                body = new String(Base64.getDecoder().decode(body), StandardCharsets.UTF_8);
+            }
+            matchedResponses.incrementAndGet();
+            // A configured mapping wins; bodies it finds nothing in still get the recipe heuristic
+            List<Map<String, String>> mapped = mapping == null ? List.of() : mapping.apply(body, url);
+            if (!mapped.isEmpty()) {
+                for (Map<String, String> fields : mapped) {
+                    if (onRecipe.accept(url, sourceUrl, fields)) {
+                        recipesCaptured.incrementAndGet();
+                    }
+                }
+                return;
+            }
+            StructuredDataExtractor.parse(body, url, fields -> {
+                if (onRecipe.accept(url, sourceUrl, fields)) {
+                    recipesCaptured.incrementAndGet();
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Error capturing response " + url + ": " + e.getMessage());
+        }
+    }
+
+    private boolean matches(String url) {
+        for (Pattern pattern : urlPatterns) {
+            if (pattern.matcher(url).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // -Dcapture.mapping=<file> maps API shapes the recipe heuristic does not recognise, e.g.
+    // {"records": "data.items", "columns": {"title": "name", "price": "pricing.display", "ingredients": "ingredients.*.name"}}
+    // Paths are dot-separated keys from the body (records) or from each record (columns); a number picks one list element
+    // and "*" every element, whose values are joined with "; "
+    static class ResponseMapping {
+        // The fields Main.toRow reads
+        static final Set<String> COLUMNS = Set.of("title", "description", "price", "calories", "servings", "cook_time",
+                                                  "difficulty", "ingredients", "dietary_tags", "url", "image_url");
+        private static final Json JSON = new Json();
+
+        final String records;
+        final Map<String, String> columns;
+
+        ResponseMapping(String records, Map<String, String> columns) {
+            this.records = records;
+            this.columns = columns;
+        }
+
+        static ResponseMapping fromProperties() {
+            String file = System.getProperty("capture.mapping", "");
+            if (file.isEmpty()) {
+                return null;
+            }
+            try {
+                Map<String, Object> raw = JSON.toType(Files.readString(Paths.get(file)), Json.MAP_TYPE);
+                Map<String, String> columns = new LinkedHashMap<>();
+                Object configured = raw.get("columns");
+                if (configured instanceof Map) {
+                    for (Map.Entry<?, ?> column : ((Map<?, ?>) configured).entrySet()) {
+                        String name = String.valueOf(column.getKey());
+                        if (COLUMNS.contains(name)) {
+                            columns.put(name, String.valueOf(column.getValue()));
+                        } else {
+                            System.err.println("⚠️ Ignoring capture.mapping column '" + name + "', expected one of " + COLUMNS);
+                        }
+                    }
+                }
+                if (columns.isEmpty()) {
+                    System.err.println("⚠️ capture.mapping " + file + " maps no columns, using the recipe heuristic only");
+                    return null;
+                }
+                ResponseMapping mapping = new ResponseMapping(String.valueOf(raw.getOrDefault("records", "")), columns);
+                System.out.println("✓ Network capture mapping: " + columns.keySet() + " from "
+                                   + (mapping.records.isEmpty() ? "the body" : mapping.records));
+                return mapping;
+            } catch (Exception e) {
+                System.err.println("❌ capture.mapping " + file + " unreadable, using the recipe heuristic only: " + e.getMessage());
+                return null;
+            }
+        }
+
+        // One row per record with at least one non-empty column
+        List<Map<String, String>> apply(String body, String apiUrl) {
+            List<Map<String, String>> rows = new ArrayList<>();
+            Object root;
+            try {
+                root = JSON.toType(body, Object.class);
+            } catch (Exception e) {
+                return rows;
+            }
+            for (Object found : resolve(root, records)) {
+                List<?> candidates = found instanceof List ? (List<?>) found : List.of(found);
+                for (Object record : candidates) {
+                    if (!(record instanceof Map)) {
+                        continue;
+                    }
+                    Map<String, String> fields = new LinkedHashMap<>();
+                    boolean any = false;
+                    for (Map.Entry<String, String> column : columns.entrySet()) {
+                        String value = text(resolve(record, column.getValue()));
+                        if (column.getKey().equals("url") || column.getKey().equals("image_url")) {
+                            value = StructuredDataExtractor.absolute(value, apiUrl);
+                        }
+                        fields.put(column.getKey(), value);
+                        any |= !value.isEmpty();
+                    }
+                    if (any) {
+                        rows.add(fields);
+                    }
+                }
+            }
+            return rows;
+        }
+
+        static List<Object> resolve(Object root, String path) {
+            List<Object> current = new ArrayList<>();
+            current.add(root);
+            if (path.isEmpty()) {
+                return current;
+            }
+            for (String segment : path.split("\\.")) {
+                List<Object> next = new ArrayList<>();
+                for (Object value : current) {
+                    if (value instanceof Map) {
+                        Object child = ((Map<?, ?>) value).get(segment);
+                        if (child != null) {
+                            next.add(child);
+                        }
+                    } else if (value instanceof List && "*".equals(segment)) {
+                        next.addAll((List<?>) value);
+                    } else if (value instanceof List && segment.matches("\\d+")) {
+                        int index = Integer.parseInt(segment);
+                        if (index < ((List<?>) value).size()) {
+                            next.add(((List<?>) value).get(index));
+                        }
+                    }
+                }
+                current = next;
+            }
+            return current;
+        }
+
+        // Scalars as text; a list of scalars at the end of a path is joined like "*" results
+        private static String text(List<Object> values) {
+            List<String> parts = new ArrayList<>();
+            for (Object value : values) {
+                if (value instanceof List) {
+                    for (Object item : (List<?>) value) {
+                        if (item != null && !(item instanceof Map) && !(item instanceof List)) {
+                            parts.add(String.valueOf(item).trim());
+                        }
+                    }
+                } else if (value != null && !(value instanceof Map)) {
+                    parts.add(String.valueOf(value).trim());
+                }
+            }
+            parts.removeIf(String::isEmpty);
+            return String.join("; ", parts);
+        }
+    }
+
+    static Event<Map<String, Object>> mapEvent(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    public void stop() {
+        bodyFetcher.shutdown();
+        try {
+            bodyFetcher.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Network stays enabled and listeners stay registered: the recorder may share this session
+        System.out.println("✓ Network capture: " + matchedResponses.get() + " API responses, "
+                           + recipesCaptured.get() + " new recipes");
+    }
+}
@@ -0,0 +1,291 @@
+package app;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// One DOMSnapshot of the page, so visibility, enabled state and text are answered without a round trip per element
+public class PageModel {
+    private static final Set<String> DISABLEABLE = Set.of("BUTTON", "INPUT", "SELECT", "TEXTAREA", "OPTION", "OPTGROUP", "FIELDSET");
+    private static final int ELEMENT_NODE = 1;
+    private static final int DOCUMENT_FRAGMENT_NODE = 11;
+
+    // The two sides are joined by each element's position in document order, so the page is never modified.
+    // A MutationObserver counts tree changes; positions are only trusted while the count is what it was at capture
+    private static final String WATCH_SCRIPT =
+        "if (!window.__accObserver) {" +
+        "  window.__accMutations = 0;" +
+        "  window.__accObserver = new MutationObserver(function() { window.__accMutations++; });" +
+        "  window.__accObserver.observe(document, {childList: true, subtree: true});" +
+        "}" +
+        "return [document.getElementsByTagName('*').length, window.__accMutations];";
+
+    private static final String FIND_SCRIPT =
+        "var found = [];" +
+        "try {" +
+        "  if (arguments[0] === 'xpath') {" +
+        "    var r = document.evaluate(arguments[1], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+        "    for (var i = 0; i < r.snapshotLength; i++) if (r.snapshotItem(i).nodeType === 1) found.push(r.snapshotItem(i));" +
+        "  } else {" +
+        "    found = Array.prototype.slice.call(document.querySelectorAll(arguments[1]));" +
+        "  }" +
+        "} catch (e) {}" +
+        "var positions = new Map();" +
+        "if (window.__accMutations === arguments[2]) {" +
+        "  var wanted = new Set(found), all = document.getElementsByTagName('*');" +
+        "  for (var j = 0; j < all.length; j++) if (wanted.has(all[j])) positions.set(all[j], j);" +
+        "}" +
+        "return [found, found.map(function(el) { return positions.has(el) ? positions.get(el) : null; })];";
+
+    private final WebDriver driver;
+    private final Map<WebElement, Integer> elementIds = new HashMap<>();
+    private long mutations = -1;
+
+    // Indexed by position in document.getElementsByTagName('*'); -1 / null where the element was not in the snapshot
+    private int[] snapshotIndex = new int[0];
+    private int[] parent = new int[0];
+    private int[] firstChild = new int[0];
+    private int[] nextSibling = new int[0];
+    private String[] nodeName = new String[0];
+    private String[] layoutText = new String[0];
+    private String[][] attributes = new String[0][];
+    private boolean[] visible = new boolean[0];
+    private boolean[] enabled = new boolean[0];
+    private final long captureNanos;
+
+    private PageModel(WebDriver driver) {
+        this.driver = driver;
+        long start = System.nanoTime();
+        if (driver instanceof HasCdp) {
+            try {
+                @SuppressWarnings("unchecked")
+                List<Number> watched = (List<Number>) ((JavascriptExecutor) driver).executeScript(WATCH_SCRIPT);
+                build(((HasCdp) driver).executeCdpCommand("DOMSnapshot.captureSnapshot",
+                    Map.of("computedStyles", List.of("display", "visibility", "opacity"))), watched.get(0).intValue());
+                mutations = watched.get(1).longValue();
+            } catch (Exception e) {
+                // An empty model simply answers everything through WebDriver
+                snapshotIndex = new int[0];
+            }
+        }
+        this.captureNanos = System.nanoTime() - start;
+    }
+
+    public static PageModel capture(WebDriver driver) {
+        return new PageModel(driver);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void build(Map<String, Object> snapshot, int elementCount) {
+        List<String> strings = (List<String>) snapshot.get("strings");
+        Map<String, Object> document = ((List<Map<String, Object>>) snapshot.get("documents")).get(0);
+        Map<String, Object> nodes = (Map<String, Object>) document.get("nodes");
+        Map<String, Object> layout = (Map<String, Object>) document.get("layout");
+
+        List<Number> parents = (List<Number>) nodes.get("parentIndex");
+        List<Number> names = (List<Number>) nodes.get("nodeName");
+        List<List<Number>> attrs = (List<List<Number>>) nodes.get("attributes");
+        List<Number> types = (List<Number>) nodes.get("nodeType");
+        Set<Integer> pseudo = new HashSet<>();
+        Map<String, Object> pseudoType = (Map<String, Object>) nodes.get("pseudoType");
+        if (pseudoType != null) {
+            for (Number index : (List<Number>) pseudoType.get("index")) {
+                pseudo.add(index.intValue());
+            }
+        }
+        int n = parents.size();
+
+        parent = new int[n];
+        firstChild = new int[n];
+        nextSibling = new int[n];
+        nodeName = new String[n];
+        attributes = new String[n][];
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        int[] lastChild = new int[n];
+        Arrays.fill(lastChild, -1);
+        snapshotIndex = new int[elementCount];
+        Arrays.fill(snapshotIndex, -1);
+        // Shadow trees, template contents and pseudo-elements are in the snapshot but not in getElementsByTagName
+        boolean[] outsideTree = new boolean[n];
+        int position = 0;
+
+        for (int i = 0; i < n; i++) {
+            parent[i] = parents.get(i).intValue();
+            nodeName[i] = strings.get(names.get(i).intValue());
+            if (parent[i] >= 0) {
+                if (lastChild[parent[i]] < 0) {
+                    firstChild[parent[i]] = i;
+                } else {
+                    nextSibling[lastChild[parent[i]]] = i;
+                }
+                lastChild[parent[i]] = i;
+            }
+            List<Number> pairs = attrs.get(i);
+            String[] resolved = new String[pairs.size()];
+            for (int a = 0; a < pairs.size(); a++) {
+                resolved[a] = strings.get(pairs.get(a).intValue());
+            }
+            attributes[i] = resolved;
+            int type = types.get(i).intValue();
+            outsideTree[i] = type == DOCUMENT_FRAGMENT_NODE || pseudo.contains(i) || (parent[i] >= 0 && outsideTree[parent[i]]);
+            if (type == ELEMENT_NODE && !outsideTree[i]) {
+                if (position < elementCount) {
+                    snapshotIndex[position] = i;
+                }
+                position++;
+            }
+        }
+        if (position != elementCount) {
+            // The page changed between counting and the snapshot: positions would join the wrong nodes
+            snapshotIndex = new int[0];
+        }
+
+        // Layout boxes only exist for rendered nodes, so display:none subtrees never get one
+        boolean[] rendered = new boolean[n];
+        boolean[] hidden = new boolean[n];
+        boolean[] zeroOpacity = new boolean[n];
+        boolean[] hasSize = new boolean[n];
+        layoutText = new String[n];
+        List<Number> layoutNodes = (List<Number>) layout.get("nodeIndex");
+        List<List<Number>> styles = (List<List<Number>>) layout.get("styles");
+        List<List<Number>> bounds = (List<List<Number>>) layout.get("bounds");
+        List<Number> texts = (List<Number>) layout.get("text");
+        for (int l = 0; l < layoutNodes.size(); l++) {
+            int node = layoutNodes.get(l).intValue();
+            rendered[node] = true;
+            List<Number> style = styles.get(l);
+            String visibility = style.size() > 1 ? strings.get(style.get(1).intValue()) : "visible";
+            String opacity = style.size() > 2 ? strings.get(style.get(2).intValue()) : "1";
+            hidden[node] = "hidden".equals(visibility) || "collapse".equals(visibility);
+            zeroOpacity[node] = "0".equals(opacity);
+            List<Number> box = bounds.get(l);
+            hasSize[node] = box.size() == 4 && box.get(2).doubleValue() > 0 && box.get(3).doubleValue() > 0;
+            int text = texts.get(l).intValue();
+            if (text >= 0) {
+                layoutText[node] = strings.get(text);
+            }
+        }
+
+        // Like Selenium's atom: zero-size elements still count when a descendant has size
+        for (int i = n - 1; i > 0; i--) {
+            if (hasSize[i] && parent[i] >= 0) {
+                hasSize[parent[i]] = true;
+            }
+        }
+        visible = new boolean[n];
+        enabled = new boolean[n];
+        boolean[] transparent = new boolean[n];
+        boolean[] disabledFieldset = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int p = parent[i];
+            // Opacity is not inherited in CSS, but a transparent ancestor hides the whole subtree
+            transparent[i] = zeroOpacity[i] || (p >= 0 && transparent[p]);
+            visible[i] = rendered[i] && !hidden[i] && !transparent[i] && hasSize[i];
+            boolean disabled = DISABLEABLE.contains(nodeName[i]) && attribute(i, "disabled") != null;
+            disabledFieldset[i] = ("FIELDSET".equals(nodeName[i]) && disabled) || (p >= 0 && disabledFieldset[p]);
+            enabled[i] = !disabled && !(DISABLEABLE.contains(nodeName[i]) && p >= 0 && disabledFieldset[p]);
+        }
+    }
+
+    // Elements for a locator in one call, already registered against the snapshot
+    @SuppressWarnings("unchecked")
+    public List<WebElement> find(By by) {
+        Map<String, Object> locator = by instanceof By.Remotable ? remoteParameters((By.Remotable) by) : null;
+        if (locator == null || snapshotIndex.length == 0) {
+            return driver.findElements(by);
+        }
+        List<Object> result = (List<Object>) ((JavascriptExecutor) driver).executeScript(
+            FIND_SCRIPT, locator.get("using"), locator.get("value"), mutations);
+        List<WebElement> elements = (List<WebElement>) result.get(0);
+        List<Object> ids = (List<Object>) result.get(1);
+        for (int i = 0; i < elements.size(); i++) {
+            if (ids.get(i) != null) {
+                elementIds.put(elements.get(i), ((Number) ids.get(i)).intValue());
+            }
+        }
+        return elements;
+    }
+
+    static Map<String, Object> remoteParameters(By.Remotable by) {
+        String using = by.getRemoteParameters().using();
+        if (!"css selector".equals(using) && !"xpath".equals(using)) {
+            return null;
+        }
+        return Map.of("using", using, "value", String.valueOf(by.getRemoteParameters().value()));
+    }
+
+    public boolean isVisible(WebElement element) {
+        int node = nodeOf(element);
+        return node >= 0 ? visible[node] : element.isDisplayed();
+    }
+
+    public boolean isEnabled(WebElement element) {
+        int node = nodeOf(element);
+        return node >= 0 ? enabled[node] : element.isEnabled();
+    }
+
+    // Rendered text of the element's subtree, close to what getText() returns
+    public String text(WebElement element) {
+        int node = nodeOf(element);
+        if (node < 0) {
+            return element.getText();
+        }
+        if (!visible[node]) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        appendText(node, text);
+        return text.toString().replaceAll("\\s+", " ").trim();
+    }
+
+    private void appendText(int node, StringBuilder text) {
+        for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+            if (layoutText[child] != null && "#text".equals(nodeName[child])) {
+                text.append(layoutText[child]);
+            } else if ("BR".equals(nodeName[child])) {
+                text.append(' ');
+            } else if (visible[child]) {
+                appendText(child, text);
+            }
+        }
+    }
+
+    // Raw attribute value as written in the markup (not the resolved DOM property)
+    public String attribute(WebElement element, String name) {
+        int node = nodeOf(element);
+        return node >= 0 ? attribute(node, name) : element.getDomAttribute(name);
+    }
+
+    private String attribute(int node, String name) {
+        String[] pairs = attributes[node];
+        for (int a = 0; a + 1 < pairs.length; a += 2) {
+            if (pairs[a].equalsIgnoreCase(name)) {
+                return pairs[a + 1];
+            }
+        }
+        return null;
+    }
+
+    private int nodeOf(WebElement element) {
+        Integer id = elementIds.get(element);
+        return id == null || id >= snapshotIndex.length ? -1 : snapshotIndex[id];
+    }
+
+    public int size() {
+        return parent.length;
+    }
+
+    public String describe() {
+        return size() + " nodes in " + String.format("%.1f", captureNanos / 1_000_000.0) + " ms";
+    }
+}
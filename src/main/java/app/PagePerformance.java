@@ -0,0 +1,201 @@
+package app;
+
+import com.opencsv.CSVWriter;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Navigation/Resource Timing, LCP and CLS for each newly loaded document, with per-section percentiles at the end
+public class PagePerformance {
+    private static final String[] HEADER = {
+        "timestamp", "section", "url", "ttfb_ms", "dom_content_loaded_ms", "load_ms", "lcp_ms", "cls",
+        "page_transfer_bytes", "resource_count", "resource_transfer_bytes", "slowest_resource_ms", "slowest_resource"
+    };
+    private static final List<String> SUMMARY_METRICS = List.of("ttfb_ms", "lcp_ms", "load_ms", "cls", "resource_transfer_bytes");
+
+    // Buffered observers hand back LCP and layout shifts through takeRecords(), so one synchronous call is enough
+    private static final String COLLECT_SCRIPT =
+        "var nav = performance.getEntriesByType('navigation')[0];" +
+        "if (!nav) return null;" +
+        "function take(type) {" +
+        "  try { var o = new PerformanceObserver(function() {}); o.observe({type: type, buffered: true});" +
+        "        var r = o.takeRecords(); o.disconnect(); return r; } catch (e) { return []; }" +
+        "}" +
+        "var lcp = take('largest-contentful-paint'), cls = 0;" +
+        "take('layout-shift').forEach(function(e) { if (!e.hadRecentInput) cls += e.value; });" +
+        "var resources = performance.getEntriesByType('resource'), bytes = 0, slowest = null;" +
+        "resources.forEach(function(r) {" +
+        "  bytes += r.transferSize || 0;" +
+        "  if (!slowest || r.duration > slowest.duration) slowest = r;" +
+        "});" +
+        "return {" +
+        "  timeOrigin: String(performance.timeOrigin), url: location.href," +
+        "  ttfb: nav.responseStart, dcl: nav.domContentLoadedEventEnd, load: nav.loadEventEnd," +
+        "  lcp: lcp.length ? lcp[lcp.length - 1].startTime : -1, cls: cls," +
+        "  pageBytes: nav.transferSize || 0, resourceCount: resources.length, resourceBytes: bytes," +
+        "  slowestMs: slowest ? slowest.duration : 0, slowest: slowest ? slowest.name : ''" +
+        "};";
+
+    private volatile WebDriver driver;
+    private final Path csvPath;
+    private final CSVWriter writer;
+    private final Set<String> seenDocuments = SessionHealth.boundedSet(10_000);
+    private final Map<String, Map<String, List<Double>>> bySection = new LinkedHashMap<>();
+
+    public PagePerformance(WebDriver driver, Path csvPath) throws IOException {
+        this.driver = driver;
+        this.csvPath = csvPath;
+        this.writer = new CSVWriter(new FileWriter(csvPath.toFile()));
+        writer.writeNext(HEADER);
+    }
+
+    // Follows a recycled browser session; the CSV and the collected samples carry over
+    public void attach(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    // "/menus/keto?x" -> "menus"; the site root is "home"
+    public static String sectionOf(String url) {
+        try {
+            String path = URI.create(url).getPath();
+            String[] parts = path == null ? new String[0] : path.split("/");
+            for (String part : parts) {
+                if (!part.isEmpty()) {
+                    return part;
+                }
+            }
+        } catch (Exception e) {
+            // Unparseable URLs share one bucket
+        }
+        return "home";
+    }
+
+    // Records the current document once; soft navigations that keep the document are ignored
+    @SuppressWarnings("unchecked")
+    public synchronized boolean record(String section) {
+        try {
+            return record(section, (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(COLLECT_SCRIPT));
+        } catch (Exception e) {
+            // Timing is best effort; a failed probe never fails the test
+            return false;
+        }
+    }
+
+    // The same probe for a pool tab, which has no WebDriver window of its own
+    @SuppressWarnings("unchecked")
+    public boolean record(String section, TabPool.Tab tab) {
+        try {
+            Object m = tab.evaluate("(function() {" + COLLECT_SCRIPT + "})()", Duration.ofSeconds(5));
+            return m instanceof Map && record(section, (Map<String, Object>) m);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private synchronized boolean record(String section, Map<String, Object> m) {
+        try {
+            if (m == null || !seenDocuments.add(String.valueOf(m.get("timeOrigin")))) {
+                return false;
+            }
+            double ttfb = number(m.get("ttfb"));
+            double load = number(m.get("load"));
+            double lcp = number(m.get("lcp"));
+            double cls = number(m.get("cls"));
+            double resourceBytes = number(m.get("resourceBytes"));
+
+            writer.writeNext(new String[]{
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+                section, String.valueOf(m.get("url")),
+                millis(ttfb), millis(number(m.get("dcl"))), millis(load), millis(lcp),
+                String.format("%.4f", cls), String.valueOf((long) number(m.get("pageBytes"))),
+                String.valueOf((long) number(m.get("resourceCount"))), String.valueOf((long) resourceBytes),
+                millis(number(m.get("slowestMs"))), String.valueOf(m.get("slowest"))
+            });
+            writer.flush();
+
+            Map<String, List<Double>> metrics = bySection.computeIfAbsent(section, s -> new LinkedHashMap<>());
+            add(metrics, "ttfb_ms", ttfb);
+            add(metrics, "lcp_ms", lcp);
+            add(metrics, "load_ms", load);
+            add(metrics, "cls", cls);
+            add(metrics, "resource_transfer_bytes", resourceBytes);
+            return true;
+        } catch (Exception e) {
+            // Timing is best effort; a failed probe never fails the test
+            return false;
+        }
+    }
+
+    // Values the page has not reached yet (e.g. no load event) are left out rather than counted as zero
+    private static void add(Map<String, List<Double>> metrics, String name, double value) {
+        if (value > 0 || ("cls".equals(name) && value >= 0)) {
+            metrics.computeIfAbsent(name, n -> new ArrayList<>()).add(value);
+        }
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : -1;
+    }
+
+    private static String millis(double value) {
+        return value > 0 ? String.valueOf(Math.round(value)) : "";
+    }
+
+    private static double percentile(List<Double> sorted, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1)));
+    }
+
+    // Prints p50/p90/p95 per section and writes the same table next to the sidecar
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Error closing performance CSV: " + e.getMessage());
+        }
+        if (bySection.isEmpty()) {
+            return;
+        }
+
+        Path summaryPath = csvPath.resolveSibling(csvPath.getFileName().toString().replace(".csv", "_summary.csv"));
+        System.out.println("\n=== PAGE PERFORMANCE (p50 / p90 / p95) ===");
+        try (CSVWriter summary = new CSVWriter(new FileWriter(summaryPath.toFile()))) {
+            summary.writeNext(new String[]{"section", "metric", "count", "p50", "p90", "p95", "max"});
+            for (Map.Entry<String, Map<String, List<Double>>> section : bySection.entrySet()) {
+                StringBuilder line = new StringBuilder(section.getKey() + ":");
+                for (String metric : SUMMARY_METRICS) {
+                    List<Double> values = section.getValue().get(metric);
+                    if (values == null || values.isEmpty()) {
+                        continue;
+                    }
+                    List<Double> sorted = new ArrayList<>(values);
+                    Collections.sort(sorted);
+                    String format = "cls".equals(metric) ? "%.3f" : "%.0f";
+                    String p50 = String.format(format, percentile(sorted, 50));
+                    String p90 = String.format(format, percentile(sorted, 90));
+                    String p95 = String.format(format, percentile(sorted, 95));
+                    summary.writeNext(new String[]{section.getKey(), metric, String.valueOf(sorted.size()),
+                                                   p50, p90, p95, String.format(format, sorted.get(sorted.size() - 1))});
+                    line.append(" ").append(metric).append("=").append(p50).append("/").append(p90).append("/").append(p95);
+                }
+                System.out.println("  " + line);
+            }
+            System.out.println("Performance: " + csvPath.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Error writing performance summary: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package app;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class PageSnapshot {
+    // Headings, paragraphs, links and images plus the current URL in one round trip.
+    // Elements that are not rendered report empty text, like WebElement.getText().
+    private static final String SNAPSHOT_SCRIPT =
+        "function text(el) { return el.getClientRects().length ? (el.innerText || '').trim() : ''; }" +
+        "function all(sel, fn) { return Array.prototype.map.call(document.querySelectorAll(sel), fn); }" +
+        "return {" +
+        "  url: location.href," +
+        "  headings: all('h1, h2, h3, h4', function(h) { return [h.tagName.toLowerCase(), text(h)]; })," +
+        "  paragraphs: all('p', function(p) { return text(p); })," +
+        "  links: all('a[href]', function(a) { return [text(a), a.href]; })," +
+        "  images: all('img', function(i) { return [i.getAttribute('src') ? i.src : '', i.getAttribute('alt')]; })" +
+        "};";
+
+    public enum Kind { HEADING, PARAGRAPH, LINK, IMAGE }
+
+    public static class Item {
+        public final Kind kind;
+        public final String tagName;
+        public final String text;
+        public final String url;
+        public final String data;
+
+        Item(Kind kind, String tagName, String text, String url, String data) {
+            this.kind = kind;
+            this.tagName = tagName;
+            this.text = text;
+            this.url = url;
+            this.data = data;
+        }
+    }
+
+    public interface Sink {
+        void accept(String pageUrl, Item item);
+    }
+
+    private final String url;
+    private final List<Item> items;
+
+    private PageSnapshot(String url, List<Item> items) {
+        this.url = url;
+        this.items = items;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static PageSnapshot capture(WebDriver driver) {
+        Map<String, Object> raw = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT);
+        List<Item> items = new ArrayList<>();
+
+        for (List<Object> heading : rows(raw, "headings")) {
+            String text = string(heading.get(1));
+            if (!text.isEmpty()) {
+                items.add(new Item(Kind.HEADING, string(heading.get(0)), text, "", text));
+            }
+        }
+        for (Object paragraph : (List<Object>) raw.getOrDefault("paragraphs", Collections.emptyList())) {
+            String text = string(paragraph);
+            if (text.length() > 20) {
+                items.add(new Item(Kind.PARAGRAPH, "p", text, "", text));
+            }
+        }
+        for (List<Object> link : rows(raw, "links")) {
+            String text = string(link.get(0));
+            if (!text.isEmpty()) {
+                items.add(new Item(Kind.LINK, "a", text, string(link.get(1)), text));
+            }
+        }
+        for (List<Object> image : rows(raw, "images")) {
+            String src = string(image.get(0));
+            if (!src.isEmpty()) {
+                items.add(new Item(Kind.IMAGE, "img", string(image.get(1)), src, src));
+            }
+        }
+        return new PageSnapshot(string(raw.get("url")), items);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void streamTo(Sink sink) {
+        for (Item item : items) {
+            sink.accept(url, item);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<List<Object>> rows(Map<String, Object> raw, String key) {
+        return (List<List<Object>>) raw.getOrDefault(key, Collections.emptyList());
+    }
+
+    private static String string(Object value) {
+        return value == null ? "" : String.valueOf(value).trim();
+    }
+}
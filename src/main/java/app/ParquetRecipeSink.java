@@ -0,0 +1,303 @@
+package app;
+
+import org.apache.parquet.conf.ParquetConfiguration;
+import org.apache.parquet.conf.PlainParquetConfiguration;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.LocalOutputFile;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Recipe rows as a typed Parquet file next to the CSV, for loading straight into a warehouse or DataFrame
+public class ParquetRecipeSink implements RecipeSink {
+    private static final int PRICE_SCALE = 2;
+
+    // Low-cardinality columns; everything else is mostly unique text where a dictionary only costs memory
+    static final List<String> DICTIONARY_COLUMNS = List.of("category", "source_page", "price_currency", "price_unit");
+
+    // RecipeSchema.HEADER in order: raw text as strings next to RecipeNormalizer's typed columns
+    static final MessageType SCHEMA = Types.buildMessage()
+        .optional(PrimitiveTypeName.INT64).named("id")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("title")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("description")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("price")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("calories")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("servings")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("cook_time")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("difficulty")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("ingredients")
+        .optionalList()
+            .optionalElement(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType())
+            .named("dietary_tags")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("category")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("url")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("image_url")
+        .optional(PrimitiveTypeName.INT64)
+            .as(LogicalTypeAnnotation.timestampType(false, LogicalTypeAnnotation.TimeUnit.MILLIS))
+            .named("scraped_at")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("source_page")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("image_local_path")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("shed_phases")
+        .optional(PrimitiveTypeName.INT64).as(LogicalTypeAnnotation.decimalType(PRICE_SCALE, 12)).named("price_amount")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("price_currency")
+        .optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("price_unit")
+        .optional(PrimitiveTypeName.INT32).named("calories_kcal")
+        .optional(PrimitiveTypeName.INT32).named("servings_count")
+        .optional(PrimitiveTypeName.INT32).named("cook_time_min_minutes")
+        .optional(PrimitiveTypeName.INT32).named("cook_time_max_minutes")
+        .named("recipe");
+
+    private static final Pattern TAG_SEPARATOR = Pattern.compile("\\s*[,;|]\\s*");
+    private static final DateTimeFormatter SCRAPED_AT = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final Path path;
+    private final CompressionCodecName codec;
+    private final ParquetWriter<String[]> writer;
+    private final Map<String, Integer> parseFailures = new LinkedHashMap<>();
+    private int written = 0;
+
+    public ParquetRecipeSink(Path path, CompressionCodecName codec, long rowGroupBytes) throws IOException {
+        this.path = path;
+        this.codec = codec;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Builder builder = new Builder(new LocalOutputFile(path))
+            .withConf(new PlainParquetConfiguration())
+            .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+            .withCompressionCodec(codec)
+            .withRowGroupSize(rowGroupBytes)
+            .withDictionaryEncoding(false);
+        for (String column : DICTIONARY_COLUMNS) {
+            builder = builder.withDictionaryEncoding(column, true);
+        }
+        this.writer = builder.build();
+        System.out.println("✓ Parquet output: " + path.toAbsolutePath() + " (" + codec + ", "
+                           + (rowGroupBytes / (1024 * 1024)) + " MB row groups)");
+    }
+
+    // The CSV's sibling with a .parquet extension; -Dparquet.compression (ZSTD, SNAPPY, GZIP, LZ4_RAW, UNCOMPRESSED)
+    public static ParquetRecipeSink fromProperties(Path csvPath) throws IOException {
+        String name = csvPath.getFileName().toString().replaceFirst("\\.csv$", "") + ".parquet";
+        CompressionCodecName codec;
+        try {
+            codec = CompressionCodecName.valueOf(System.getProperty("parquet.compression", "ZSTD").trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️ Unknown -Dparquet.compression, using ZSTD");
+            codec = CompressionCodecName.ZSTD;
+        }
+        return new ParquetRecipeSink(csvPath.resolveSibling(name), codec,
+                                     Long.getLong("parquet.rowGroupMb", 64) * 1024 * 1024);
+    }
+
+    // Rows are buffered in memory and reach the file a row group at a time
+    @Override
+    public synchronized void write(String[] row) throws IOException {
+        writer.write(row);
+        written++;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+        System.out.println("✓ Parquet output: " + written + " rows, " + (Files.size(path) / 1024) + " KB " + codec);
+        for (Map.Entry<String, Integer> failure : parseFailures.entrySet()) {
+            System.out.println("  " + failure.getKey() + ": " + failure.getValue() + " values could not be converted (written as null)");
+        }
+    }
+
+    static List<String> parseTags(String value) {
+        List<String> tags = new ArrayList<>();
+        for (String tag : TAG_SEPARATOR.split(value.trim())) {
+            if (!tag.isEmpty()) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    // Wall-clock time of the run, stored without a zone as the runners format it
+    static Long parseScrapedAt(String value) {
+        try {
+            return LocalDateTime.parse(value.trim(), SCRAPED_AT).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String value(String[] row, String column) {
+        int i = RecipeSchema.indexOf(column);
+        return i < 0 || i >= row.length || row[i] == null ? "" : row[i].trim();
+    }
+
+    // Empty text is a missing value; anything else that fails to convert is counted for the summary
+    private <T> T typed(String column, String text, T converted) {
+        if (converted == null && !text.isEmpty()) {
+            parseFailures.merge(column, 1, Integer::sum);
+        }
+        return converted;
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // DECIMAL(12, 2) stores the amount in cents
+    private static Long parseCents(String value) {
+        try {
+            return new BigDecimal(value).setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private class RecipeWriteSupport extends WriteSupport<String[]> {
+        private RecordConsumer consumer;
+
+        @SuppressWarnings("deprecation")
+        @Override
+        public WriteContext init(org.apache.hadoop.conf.Configuration configuration) {
+            return new WriteContext(SCHEMA, new HashMap<>());
+        }
+
+        @Override
+        public WriteContext init(ParquetConfiguration configuration) {
+            return new WriteContext(SCHEMA, new HashMap<>());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(String[] row) {
+            consumer.startMessage();
+            for (Type field : SCHEMA.getFields()) {
+                String name = field.getName();
+                String text = value(row, name);
+                if (!field.isPrimitive()) {
+                    writeTags(parseTags(text));
+                } else if (field.asPrimitiveType().getPrimitiveTypeName() == PrimitiveTypeName.BINARY) {
+                    writeString(name, text);
+                } else if (field.asPrimitiveType().getPrimitiveTypeName() == PrimitiveTypeName.INT32) {
+                    writeInteger(name, typed(name, text, parseInteger(text)));
+                } else if ("scraped_at".equals(name)) {
+                    writeLong(name, typed(name, text, parseScrapedAt(text)));
+                } else if ("price_amount".equals(name)) {
+                    writeLong(name, typed(name, text, parseCents(text)));
+                } else {
+                    writeLong(name, typed(name, text, parseLong(text)));
+                }
+            }
+            consumer.endMessage();
+        }
+
+        // Optional fields are written only when present; an absent field reads back as null
+        private void writeString(String field, String value) {
+            if (!value.isEmpty()) {
+                int index = SCHEMA.getFieldIndex(field);
+                consumer.startField(field, index);
+                consumer.addBinary(Binary.fromString(value));
+                consumer.endField(field, index);
+            }
+        }
+
+        private void writeInteger(String field, Integer value) {
+            if (value != null) {
+                int index = SCHEMA.getFieldIndex(field);
+                consumer.startField(field, index);
+                consumer.addInteger(value);
+                consumer.endField(field, index);
+            }
+        }
+
+        private void writeLong(String field, Long value) {
+            if (value != null) {
+                int index = SCHEMA.getFieldIndex(field);
+                consumer.startField(field, index);
+                consumer.addLong(value);
+                consumer.endField(field, index);
+            }
+        }
+
+        // Standard three-level LIST: dietary_tags.list.element
+        private void writeTags(List<String> tags) {
+            if (tags.isEmpty()) {
+                return;
+            }
+            int index = SCHEMA.getFieldIndex("dietary_tags");
+            consumer.startField("dietary_tags", index);
+            consumer.startGroup();
+            consumer.startField("list", 0);
+            for (String tag : tags) {
+                consumer.startGroup();
+                consumer.startField("element", 0);
+                consumer.addBinary(Binary.fromString(tag));
+                consumer.endField("element", 0);
+                consumer.endGroup();
+            }
+            consumer.endField("list", 0);
+            consumer.endGroup();
+            consumer.endField("dietary_tags", index);
+        }
+    }
+
+    private class Builder extends ParquetWriter.Builder<String[], Builder> {
+        Builder(OutputFile file) {
+            super(file);
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @SuppressWarnings("deprecation")
+        @Override
+        protected WriteSupport<String[]> getWriteSupport(org.apache.hadoop.conf.Configuration configuration) {
+            return new RecipeWriteSupport();
+        }
+
+        @Override
+        protected WriteSupport<String[]> getWriteSupport(ParquetConfiguration configuration) {
+            return new RecipeWriteSupport();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package app;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// Holds each recipe until it has been seen under every category page, then writes it once with category "High Protein|Keto"
+public class RecipeMergeSink implements RecipeSink {
+    static final String CATEGORY_SEPARATOR = "|";
+
+    private static final int CATEGORY = RecipeSchema.indexOf("category");
+    private static final int URL = RecipeSchema.indexOf("url");
+    private static final int TITLE = RecipeSchema.indexOf("title");
+    private static final int IMAGE_URL = RecipeSchema.indexOf("image_url");
+    private static final int IMAGE_LOCAL_PATH = RecipeSchema.indexOf("image_local_path");
+    private static final Pattern TRACKING_PARAM = Pattern.compile("^(utm_[a-z]+|gclid|fbclid|ref|source)=.*", Pattern.CASE_INSENSITIVE);
+
+    private final RecipeSink delegate;
+    private final int maxRecipes;
+    private final Map<String, Merged> index = new ConcurrentHashMap<>();
+    // First-seen order, so a full index writes out the recipe least likely to turn up again
+    private final ConcurrentLinkedQueue<String> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger held = new AtomicInteger();
+
+    private final AtomicInteger rowsIn = new AtomicInteger();
+    private final AtomicInteger merged = new AtomicInteger();
+    private final AtomicInteger rowsOut = new AtomicInteger();
+    private final AtomicInteger evicted = new AtomicInteger();
+
+    public RecipeMergeSink(RecipeSink delegate, int maxRecipes) {
+        this.delegate = delegate;
+        this.maxRecipes = Math.max(1, maxRecipes);
+        System.out.println("✓ Recipe merge: duplicates across category pages are written once (up to "
+                           + this.maxRecipes + " recipes held)");
+    }
+
+    // -Dmerge=true turns it on; -Dmerge.maxRecipes bounds how many distinct recipes are held in memory
+    public static RecipeSink wrapFromProperties(RecipeSink delegate) {
+        if (!enabled()) {
+            return delegate;
+        }
+        return new RecipeMergeSink(delegate, Integer.getInteger("merge.maxRecipes", 20_000));
+    }
+
+    // Runners dedupe per category instead of per recipe when this is on, so every category reaches the merge
+    public static boolean enabled() {
+        return Boolean.getBoolean("merge");
+    }
+
+    private static class Merged {
+        final String[] row;
+        // Sorted, so the joined value does not depend on which page or worker delivered a row first
+        final Set<String> categories = new TreeSet<>();
+
+        Merged(String[] row) {
+            this.row = row;
+            addCategories(row);
+        }
+
+        // Later sightings only fill columns the first one left blank
+        void merge(String[] other) {
+            for (int i = 0; i < row.length && i < other.length; i++) {
+                if ((row[i] == null || row[i].isBlank()) && other[i] != null && !other[i].isBlank()) {
+                    row[i] = other[i];
+                }
+            }
+            addCategories(other);
+        }
+
+        void addCategories(String[] from) {
+            String value = value(from, CATEGORY);
+            for (String category : value.split(Pattern.quote(CATEGORY_SEPARATOR))) {
+                if (!category.isBlank()) {
+                    categories.add(category.trim());
+                }
+            }
+        }
+
+        String[] toRow() {
+            row[CATEGORY] = String.join(CATEGORY_SEPARATOR, categories);
+            return row;
+        }
+    }
+
+    @Override
+    public void write(String[] row) throws IOException {
+        rowsIn.incrementAndGet();
+        String key = keyOf(row);
+        if (key.isEmpty()) {
+            // Nothing to recognise it by again
+            emit(Arrays.copyOf(row, RecipeSchema.HEADER.length));
+            return;
+        }
+        boolean[] created = {false};
+        index.compute(key, (k, existing) -> {
+            if (existing == null) {
+                created[0] = true;
+                return new Merged(Arrays.copyOf(row, RecipeSchema.HEADER.length));
+            }
+            existing.merge(row);
+            return existing;
+        });
+        if (!created[0]) {
+            merged.incrementAndGet();
+            return;
+        }
+        order.add(key);
+        if (held.incrementAndGet() > maxRecipes) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() throws IOException {
+        String key;
+        while ((key = order.poll()) != null) {
+            Merged oldest = index.remove(key);
+            if (oldest != null) {
+                held.decrementAndGet();
+                evicted.incrementAndGet();
+                emit(oldest.toRow());
+                return;
+            }
+        }
+    }
+
+    private void emit(String[] row) throws IOException {
+        delegate.write(row);
+        rowsOut.incrementAndGet();
+    }
+
+    // Normalised URL; without one, title plus the image (content hash once downloaded, else its URL)
+    static String keyOf(String[] row) {
+        String url = normalizeUrl(value(row, URL));
+        if (!url.isEmpty()) {
+            return url;
+        }
+        String title = value(row, TITLE).toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        if (title.isEmpty()) {
+            return "";
+        }
+        return "title:" + title + "#" + imageKey(row);
+    }
+
+    private static String imageKey(String[] row) {
+        String local = value(row, IMAGE_LOCAL_PATH);
+        if (!local.isEmpty()) {
+            // ImageDownloadSink names files by the SHA-256 of their content
+            String name = Paths.get(local).getFileName().toString();
+            int dot = name.indexOf('.');
+            return dot > 0 ? name.substring(0, dot) : name;
+        }
+        String image = normalizeUrl(value(row, IMAGE_URL));
+        return image.isEmpty() ? "" : Integer.toHexString(image.hashCode());
+    }
+
+    // Lower-case scheme and host, no fragment, tracking parameters or trailing slash
+    static String normalizeUrl(String url) {
+        if (url.isEmpty()) {
+            return "";
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            if (uri.getHost() == null) {
+                return url.trim();
+            }
+            StringBuilder query = new StringBuilder();
+            if (uri.getRawQuery() != null) {
+                for (String param : uri.getRawQuery().split("&")) {
+                    if (!param.isEmpty() && !TRACKING_PARAM.matcher(param).matches()) {
+                        query.append(query.length() == 0 ? "?" : "&").append(param);
+                    }
+                }
+            }
+            String path = uri.getRawPath() == null ? "" : uri.getRawPath().replaceAll("/+$", "");
+            String scheme = uri.getScheme() == null ? "https" : uri.getScheme().toLowerCase(Locale.ROOT);
+            String port = uri.getPort() < 0 ? "" : ":" + uri.getPort();
+            return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + port + path + query;
+        } catch (IllegalArgumentException e) {
+            return url.trim();
+        }
+    }
+
+    private static String value(String[] row, int column) {
+        return column < 0 || column >= row.length || row[column] == null ? "" : row[column].trim();
+    }
+
+    // Writes out every held recipe; one that turns up again afterwards starts a new row
+    @Override
+    public void flush() throws IOException {
+        drain();
+        delegate.flush();
+    }
+
+    private void drain() throws IOException {
+        String key;
+        while ((key = order.poll()) != null) {
+            Merged recipe = index.remove(key);
+            if (recipe != null) {
+                held.decrementAndGet();
+                emit(recipe.toRow());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            System.out.println("✓ Recipe merge: " + rowsIn.get() + " rows in, " + rowsOut.get() + " recipes out ("
+                               + merged.get() + " duplicates merged, " + evicted.get() + " written early to stay under "
+                               + maxRecipes + ")");
+            delegate.close();
+        }
+    }
+}
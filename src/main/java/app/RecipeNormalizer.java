@@ -0,0 +1,339 @@
+package app;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Parses the raw price, calories, servings and cook_time text into the typed columns at the end of RecipeSchema
+public class RecipeNormalizer implements RecipeSink {
+    private static final int PRICE = RecipeSchema.indexOf("price");
+    private static final int CALORIES = RecipeSchema.indexOf("calories");
+    private static final int SERVINGS = RecipeSchema.indexOf("servings");
+    private static final int COOK_TIME = RecipeSchema.indexOf("cook_time");
+    private static final int PRICE_AMOUNT = RecipeSchema.indexOf("price_amount");
+    private static final int PRICE_CURRENCY = RecipeSchema.indexOf("price_currency");
+    private static final int PRICE_UNIT = RecipeSchema.indexOf("price_unit");
+    private static final int CALORIES_KCAL = RecipeSchema.indexOf("calories_kcal");
+    private static final int SERVINGS_COUNT = RecipeSchema.indexOf("servings_count");
+    private static final int COOK_TIME_MIN = RecipeSchema.indexOf("cook_time_min_minutes");
+    private static final int COOK_TIME_MAX = RecipeSchema.indexOf("cook_time_max_minutes");
+
+    // "$11.99/serving", "€9,99 per meal", "11.99 USD each", "From $8.99"
+    private static final String AMOUNT = "(\\d{1,3}(?:[.,\\s]\\d{3})+(?:[.,]\\d{1,2})?|\\d+(?:[.,]\\d{1,2})?)";
+    private static final Pattern PRICE_PATTERN = Pattern.compile(
+        "([$€£¥]|\\b(?:USD|EUR|GBP|CAD|AUD)\\b)?\\s*" + AMOUNT + "\\s*([$€£¥]|\\b(?:USD|EUR|GBP|CAD|AUD)\\b)?", Pattern.CASE_INSENSITIVE);
+    private static final Pattern PRICE_UNIT_PATTERN = Pattern.compile(
+        "(?:/|\\bper\\b|\\ba\\b|\\beach\\b)\\s*(serving|meal|box|week|person|portion|plate|recipe)s?\\b", Pattern.CASE_INSENSITIVE);
+    private static final Map<String, String> CURRENCY_SYMBOLS = Map.of("$", "USD", "€", "EUR", "£", "GBP", "¥", "JPY");
+
+    // "620 cal", "1,200 kcal", "2600 kJ" or a bare number
+    private static final Pattern ENERGY = Pattern.compile(
+        "(\\d{1,3}(?:,\\d{3})+|\\d+(?:\\.\\d+)?)\\s*(kcal|calories|calorie|cals?|kj)?\\b", Pattern.CASE_INSENSITIVE);
+    private static final double KJ_PER_KCAL = 4.184;
+
+    // "Serves 2", "2 servings", "2-4 servings" (the lower bound)
+    private static final Pattern COUNT = Pattern.compile("(\\d+)");
+
+    // "30-40 min", "1 to 1.5 hours", "1 hr 15 min", "45 mins", "PT35M" or a bare number of minutes
+    private static final String UNIT = "(h|hr|hrs|hour|hours|m|min|mins|minute|minutes)\\b";
+    private static final Pattern TIME_RANGE = Pattern.compile(
+        "(\\d+(?:\\.\\d+)?)\\s*" + "(?:" + UNIT + ")?\\s*(?:-|–|to)\\s*(\\d+(?:\\.\\d+)?)\\s*" + UNIT, Pattern.CASE_INSENSITIVE);
+    private static final Pattern TIME_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)\\s*" + UNIT, Pattern.CASE_INSENSITIVE);
+    private static final Pattern BARE_NUMBER = Pattern.compile("\\d+");
+    // Only "PT..." or "P<digit>..." is ISO-8601; "Prep & cook: 30 min" is free text that happens to start with a P
+    private static final Pattern ISO_DURATION = Pattern.compile("^P(T|\\d)", Pattern.CASE_INSENSITIVE);
+
+    private static final long DRAIN_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final RecipeSink delegate;
+    private final ThreadPoolExecutor workers;
+    private final int queueSize;
+    // Rows in submission order: workers only parse, the delegate is written from the head so row order is kept
+    private final ArrayDeque<Future<String[]>> pending = new ArrayDeque<>();
+    private final LongAdder normalized = new LongAdder();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    // threads == 0 normalises on the caller's thread
+    public RecipeNormalizer(RecipeSink delegate, int threads, int queueSize) {
+        this.delegate = delegate;
+        this.queueSize = Math.max(1, queueSize);
+        // A full queue runs the row on the scrape thread, which slows extraction rather than dropping rows
+        this.workers = threads <= 0 ? null
+            : new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                                     new ArrayBlockingQueue<>(this.queueSize),
+                                     new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    // Always in the chain so every output has the typed columns; -Dnormalize.threads sizes the worker pool
+    public static RecipeSink wrapFromProperties(RecipeSink delegate) {
+        int threads = Integer.getInteger("normalize.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        return new RecipeNormalizer(delegate, threads, Integer.getInteger("normalize.queue", 1024));
+    }
+
+    @Override
+    public synchronized void write(String[] row) throws IOException {
+        String[] copy = Arrays.copyOf(row, RecipeSchema.HEADER.length);
+        if (workers == null) {
+            delegate.write(normalize(copy));
+            return;
+        }
+        pending.add(workers.submit(() -> normalize(copy)));
+        // Finished rows go out as soon as everything before them has; more than a queue's worth waits for the oldest
+        writeFinished(queueSize);
+    }
+
+    // Writes rows from the head of the queue, waiting for an unfinished head only while more than `keep` rows are queued
+    private void writeFinished(int keep) throws IOException {
+        long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+        while (!pending.isEmpty()) {
+            Future<String[]> head = pending.peek();
+            if (!head.isDone() && pending.size() <= keep) {
+                return;
+            }
+            String[] normalizedRow;
+            try {
+                normalizedRow = head.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                throw new IOException(pending.size() + " rows still being normalised after " + DRAIN_TIMEOUT_MS / 1000 + " s");
+            } catch (ExecutionException e) {
+                pending.poll();
+                throw new IOException("Error normalising row: " + e.getCause(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted with " + pending.size() + " rows still being normalised");
+            }
+            pending.poll();
+            delegate.write(normalizedRow);
+        }
+    }
+
+    // Fills the typed columns in place; raw columns are left exactly as scraped
+    String[] normalize(String[] row) {
+        String price = value(row, PRICE);
+        if (!price.isEmpty()) {
+            Price parsed = parsePrice(price);
+            if (parsed == null) {
+                failed("price");
+            } else {
+                row[PRICE_AMOUNT] = parsed.amount.toPlainString();
+                row[PRICE_CURRENCY] = parsed.currency;
+                row[PRICE_UNIT] = parsed.unit;
+            }
+        }
+        String calories = value(row, CALORIES);
+        if (!calories.isEmpty()) {
+            Integer kcal = parseKcal(calories);
+            if (kcal == null) {
+                failed("calories");
+            } else {
+                row[CALORIES_KCAL] = String.valueOf(kcal);
+            }
+        }
+        String servings = value(row, SERVINGS);
+        if (!servings.isEmpty()) {
+            Integer count = parseCount(servings);
+            if (count == null) {
+                failed("servings");
+            } else {
+                row[SERVINGS_COUNT] = String.valueOf(count);
+            }
+        }
+        String cookTime = value(row, COOK_TIME);
+        if (!cookTime.isEmpty()) {
+            int[] range = parseMinutes(cookTime);
+            if (range == null) {
+                failed("cook_time");
+            } else {
+                row[COOK_TIME_MIN] = String.valueOf(range[0]);
+                row[COOK_TIME_MAX] = String.valueOf(range[1]);
+            }
+        }
+        normalized.increment();
+        return row;
+    }
+
+    static class Price {
+        final BigDecimal amount;
+        final String currency;
+        final String unit;
+
+        Price(BigDecimal amount, String currency, String unit) {
+            this.amount = amount;
+            this.currency = currency;
+            this.unit = unit;
+        }
+    }
+
+    // "$" is taken as USD, which is what the scraped sites charge in; no unit leaves price_unit empty.
+    // The first amount with a currency wins ("2 for $20" is 20), otherwise the first amount at all
+    static Price parsePrice(String text) {
+        Matcher m = PRICE_PATTERN.matcher(text);
+        BigDecimal bare = null;
+        String currency = "";
+        while (m.find()) {
+            String symbol = m.group(1) != null ? m.group(1) : m.group(3);
+            BigDecimal amount = parseAmount(m.group(2));
+            if (amount == null) {
+                continue;
+            }
+            if (symbol != null) {
+                bare = amount;
+                currency = CURRENCY_SYMBOLS.getOrDefault(symbol, symbol.toUpperCase(Locale.ROOT));
+                break;
+            }
+            if (bare == null) {
+                bare = amount;
+            }
+        }
+        if (bare == null) {
+            return null;
+        }
+        Matcher unit = PRICE_UNIT_PATTERN.matcher(text);
+        return new Price(bare, currency, unit.find() ? unit.group(1).toLowerCase(Locale.ROOT) : "");
+    }
+
+    // A final separator followed by one or two digits is the decimal point; every other separator groups thousands
+    static BigDecimal parseAmount(String text) {
+        String digits = text.replaceAll("\\s", "");
+        int last = Math.max(digits.lastIndexOf('.'), digits.lastIndexOf(','));
+        String whole = digits;
+        String fraction = "";
+        if (last >= 0 && digits.length() - last - 1 <= 2) {
+            whole = digits.substring(0, last);
+            fraction = digits.substring(last + 1);
+        }
+        try {
+            BigDecimal amount = new BigDecimal(whole.replaceAll("[.,]", "") + (fraction.isEmpty() ? "" : "." + fraction));
+            return amount.setScale(2, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // The first number with an energy unit wins ("Per serving (2): 620 cal" is 620), otherwise the first number
+    static Integer parseKcal(String text) {
+        Matcher m = ENERGY.matcher(text);
+        String number = null;
+        String unit = null;
+        while (m.find()) {
+            if (m.group(2) != null) {
+                number = m.group(1);
+                unit = m.group(2);
+                break;
+            }
+            if (number == null) {
+                number = m.group(1);
+            }
+        }
+        if (number == null) {
+            return null;
+        }
+        double value = Double.parseDouble(number.replace(",", ""));
+        if ("kj".equalsIgnoreCase(unit)) {
+            value /= KJ_PER_KCAL;
+        }
+        return (int) Math.round(value);
+    }
+
+    static Integer parseCount(String text) {
+        Matcher m = COUNT.matcher(text);
+        if (!m.find()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(m.group(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // {min, max} in minutes; a single duration has min == max
+    static int[] parseMinutes(String text) {
+        String trimmed = text.trim();
+        if (ISO_DURATION.matcher(trimmed).find()) {
+            try {
+                int minutes = (int) Duration.parse(trimmed.toUpperCase(Locale.ROOT)).toMinutes();
+                return new int[]{minutes, minutes};
+            } catch (Exception e) {
+                // Not a duration Duration.parse accepts; try the free-text forms
+            }
+        }
+        Matcher range = TIME_RANGE.matcher(trimmed);
+        if (range.find()) {
+            // "1-1.5 hours": the lower bound takes the upper bound's unit unless it has its own
+            String upperUnit = range.group(4);
+            String lowerUnit = range.group(2) != null ? range.group(2) : upperUnit;
+            return new int[]{minutes(range.group(1), lowerUnit), minutes(range.group(3), upperUnit)};
+        }
+        Matcher part = TIME_PART.matcher(trimmed);
+        int total = 0;
+        boolean found = false;
+        while (part.find()) {
+            total += minutes(part.group(1), part.group(2));
+            found = true;
+        }
+        if (found) {
+            return new int[]{total, total};
+        }
+        if (BARE_NUMBER.matcher(trimmed).matches()) {
+            int minutes = Integer.parseInt(trimmed);
+            return new int[]{minutes, minutes};
+        }
+        return null;
+    }
+
+    private static int minutes(String amount, String unit) {
+        double value = Double.parseDouble(amount);
+        return (int) Math.round(unit.toLowerCase(Locale.ROOT).startsWith("h") ? value * 60 : value);
+    }
+
+    private void failed(String column) {
+        failures.computeIfAbsent(column, c -> new LongAdder()).increment();
+    }
+
+    private static String value(String[] row, int column) {
+        return column < 0 || column >= row.length || row[column] == null ? "" : row[column].trim();
+    }
+
+    // Queued rows reach the delegate before it is flushed; one still unfinished after a minute fails the flush
+    @Override
+    public synchronized void flush() throws IOException {
+        writeFinished(0);
+        delegate.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (workers != null) {
+                workers.shutdown();
+                writeFinished(0);
+            }
+        } finally {
+            System.out.println("✓ Normalised " + normalized.sum() + " rows" + (failures.isEmpty() ? "" : ", unparseable values:"));
+            for (Map.Entry<String, LongAdder> entry : failures.entrySet()) {
+                System.out.println("  " + entry.getKey() + ": " + entry.getValue().sum());
+            }
+            if (!pending.isEmpty()) {
+                System.err.println("❌ " + pending.size() + " normalised rows were never written");
+                workers.shutdownNow();
+            }
+            delegate.close();
+        }
+    }
+}
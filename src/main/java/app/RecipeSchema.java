@@ -0,0 +1,26 @@
+package app;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class RecipeSchema {
+    // Column order of every recipe row, shared by all sinks
+    public static final String[] HEADER = {
+        "id", "title", "description", "price", "calories", "servings",
+        "cook_time", "difficulty", "ingredients", "dietary_tags",
+        "category", "url", "image_url", "scraped_at", "source_page",
+        "image_local_path", "shed_phases",
+        // Typed values parsed from the raw text columns by RecipeNormalizer
+        "price_amount", "price_currency", "price_unit", "calories_kcal", "servings_count",
+        "cook_time_min_minutes", "cook_time_max_minutes"
+    };
+
+    public static final List<String> COLUMNS = Arrays.asList(HEADER);
+
+    private RecipeSchema() {
+    }
+
+    public static int indexOf(String column) {
+        return COLUMNS.indexOf(column);
+    }
+}
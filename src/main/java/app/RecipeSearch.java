@@ -0,0 +1,77 @@
+package app;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.range.LongRange;
+import org.apache.lucene.facet.range.LongRangeFacetCounts;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+public class RecipeSearch {
+    private static final LongRange[] PRICE_RANGES = {
+        new LongRange("under $10", 0, true, 1000, false),
+        new LongRange("$10-$15", 1000, true, 1500, false),
+        new LongRange("$15-$20", 1500, true, 2000, false),
+        new LongRange("$20+", 2000, true, Long.MAX_VALUE, true)
+    };
+
+    public static void main(String[] args) throws IOException, ParseException {
+        if (args.length == 0) {
+            System.out.println("Usage: RecipeSearch <query> [limit]   e.g. \"ingredients:salmon AND dietary_tags:keto\"");
+            return;
+        }
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String indexDir = System.getProperty("lucene.dir", LuceneRecipeSink.DEFAULT_DIR);
+
+        try (DirectoryReader reader = DirectoryReader.open(FSDirectory.open(Paths.get(indexDir)))) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            Query query = new MultiFieldQueryParser(LuceneRecipeSink.TEXT_FIELDS.toArray(new String[0]),
+                                                    new StandardAnalyzer()).parse(args[0]);
+
+            long start = System.nanoTime();
+            FacetsCollector collector = new FacetsCollector();
+            TopDocs hits = FacetsCollector.search(searcher, query, limit, collector);
+            Facets categories = new SortedSetDocValuesFacetCounts(
+                new DefaultSortedSetDocValuesReaderState(reader, LuceneRecipeSink.facetsConfig()), collector);
+            Facets prices = new LongRangeFacetCounts(LuceneRecipeSink.PRICE_CENTS, collector, PRICE_RANGES);
+            FacetResult categoryCounts = categories.getTopChildren(20, LuceneRecipeSink.CATEGORY_FACET);
+            FacetResult priceCounts = prices.getAllChildren(LuceneRecipeSink.PRICE_CENTS);
+            double elapsedMs = (System.nanoTime() - start) / 1_000_000.0;
+
+            System.out.println(hits.totalHits.value + " matches in " + String.format("%.2f", elapsedMs) + " ms");
+            for (ScoreDoc hit : hits.scoreDocs) {
+                Document doc = searcher.storedFields().document(hit.doc);
+                System.out.println("  " + doc.get("title") + " | " + doc.get("price") + " | "
+                                   + doc.get("category") + " | " + doc.get("url"));
+            }
+            printFacet("Category", categoryCounts);
+            printFacet("Price", priceCounts);
+        }
+    }
+
+    private static void printFacet(String name, FacetResult facet) {
+        if (facet == null) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(name + ":");
+        for (LabelAndValue entry : facet.labelValues) {
+            line.append(" ").append(entry.label).append("=").append(entry.value);
+        }
+        System.out.println(line);
+    }
+}
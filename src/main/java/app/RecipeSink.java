@@ -0,0 +1,12 @@
+package app;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Receives recipe rows laid out as RecipeSchema.HEADER
+public interface RecipeSink extends Closeable {
+    void write(String[] row) throws IOException;
+
+    default void flush() throws IOException {
+    }
+}
@@ -0,0 +1,301 @@
+package app;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RuleExtractor {
+    private static final Json JSON = new Json();
+    private static final String DEFAULT_RULES_FILE = "src/main/resources/extraction-rules.json";
+    private static final long RELOAD_CHECK_INTERVAL_MS = 1000;
+
+    // Calls the registered extractor by name; null tells us this document has not got it yet
+    private static final String INVOKE_SCRIPT =
+        "var f = window[arguments[0]];" +
+        "return typeof f === 'function' ? f(arguments[1]) : null;";
+
+    // The card around the first link to each URL, run through the rules; null where no link points at the URL
+    private static final String CARDS_SCRIPT =
+        "var f = window[arguments[0]], urls = arguments[1];" +
+        "if (typeof f !== 'function') return null;" +
+        "var links = {};" +
+        "Array.prototype.forEach.call(document.querySelectorAll('a[href]'), function(a) { if (!(a.href in links)) links[a.href] = a; });" +
+        "var roots = [], at = [];" +
+        "urls.forEach(function(u, i) {" +
+        "  var a = links[u];" +
+        "  if (a) { roots.push(a.closest('article, li, [class*=card], [class*=recipe], [class*=meal]') || a.parentElement); at.push(i); }" +
+        "});" +
+        "var rows = f(roots), out = urls.map(function() { return null; });" +
+        "at.forEach(function(i, j) { out[i] = rows[j]; });" +
+        "return out;";
+
+    private final WebDriver driver;
+    private final Path rulesFile;
+    private CompiledRules rules;
+    private long rulesModified;
+    private long lastReloadCheck;
+    private String registeredScriptId;
+    private int version = 0;
+
+    private int executions = 0;
+    private long executionNanos = 0;
+
+    public RuleExtractor(WebDriver driver) {
+        this.driver = driver;
+        String configured = System.getProperty("rules.file", DEFAULT_RULES_FILE);
+        Path file = Paths.get(configured);
+        // Running outside the project root falls back to the copy bundled on the classpath
+        this.rulesFile = Files.exists(file) ? file : null;
+        this.rules = compile(readRules());
+        register();
+    }
+
+    static class CompiledRules {
+        final int version;
+        final String functionName;
+        final List<String> fieldNames;
+        final String source;
+        final long compileNanos;
+        final Map<String, List<String>> selectors;
+
+        CompiledRules(int version, String functionName, List<String> fieldNames, String source, long compileNanos,
+                      Map<String, List<String>> selectors) {
+            this.version = version;
+            this.functionName = functionName;
+            this.fieldNames = fieldNames;
+            this.source = source;
+            this.compileNanos = compileNanos;
+            this.selectors = selectors;
+        }
+    }
+
+    public List<String> getFieldNames() {
+        return rules.fieldNames;
+    }
+
+    // Every CSS selector in the rules: "containers" first, then each field's fallbacks in order
+    public Map<String, List<String>> getSelectors() {
+        return rules.selectors;
+    }
+
+    // All container matches on the page, one row per match, in a single round trip
+    public List<Map<String, String>> extractPage() {
+        return invoke(null);
+    }
+
+    // The same field rules applied to elements we already hold
+    public List<Map<String, String>> extractFrom(List<WebElement> roots) {
+        return invoke(roots);
+    }
+
+    // The rules applied to the card linking to each URL, all in one round trip; null entries where the page has no card
+    @SuppressWarnings("unchecked")
+    public List<Map<String, String>> extractCards(List<String> urls) {
+        reloadIfChanged();
+
+        long start = System.nanoTime();
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        Object result = js.executeScript(CARDS_SCRIPT, rules.functionName, urls);
+        if (result == null) {
+            js.executeScript(rules.source);
+            result = js.executeScript(CARDS_SCRIPT, rules.functionName, urls);
+        }
+        executionNanos += System.nanoTime() - start;
+        executions++;
+        List<Map<String, String>> cards = new ArrayList<>();
+        for (Object card : result instanceof List ? (List<Object>) result : Collections.emptyList()) {
+            cards.add(card == null ? null : toRows(List.of(card)).get(0));
+        }
+        return cards;
+    }
+
+    // extractPage() as one self-installing expression, for tabs driven over CDP Runtime.evaluate
+    public String pageExpression() {
+        reloadIfChanged();
+        return "(function() {" + rules.source + " return window['" + rules.functionName + "'](null); })()";
+    }
+
+    private List<Map<String, String>> invoke(List<WebElement> roots) {
+        reloadIfChanged();
+
+        long start = System.nanoTime();
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        Object result = js.executeScript(INVOKE_SCRIPT, rules.functionName, roots);
+        if (result == null) {
+            // New document that predates registration (or no CDP): install it here once
+            js.executeScript(rules.source);
+            result = js.executeScript(INVOKE_SCRIPT, rules.functionName, roots);
+        }
+        executionNanos += System.nanoTime() - start;
+        executions++;
+        return toRows(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Map<String, String>> toRows(Object result) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        if (result instanceof List) {
+            for (Object row : (List<Object>) result) {
+                Map<String, String> fields = new LinkedHashMap<>();
+                for (Map.Entry<String, Object> field : ((Map<String, Object>) row).entrySet()) {
+                    fields.put(field.getKey(), field.getValue() == null ? "" : String.valueOf(field.getValue()));
+                }
+                rows.add(fields);
+            }
+        }
+        return rows;
+    }
+
+    private void reloadIfChanged() {
+        long now = System.currentTimeMillis();
+        if (rulesFile == null || now - lastReloadCheck < RELOAD_CHECK_INTERVAL_MS) {
+            return;
+        }
+        lastReloadCheck = now;
+        try {
+            if (Files.getLastModifiedTime(rulesFile).toMillis() != rulesModified) {
+                CompiledRules reloaded = compile(readRules());
+                rules = reloaded;
+                register();
+                System.out.println("🔄 Extraction rules reloaded (v" + reloaded.version + ", "
+                                   + reloaded.fieldNames.size() + " fields)");
+            }
+        } catch (Exception e) {
+            // Keep the last good rules if the file is mid-edit or invalid
+            System.err.println("Error reloading extraction rules: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> readRules() {
+        try {
+            String text;
+            if (rulesFile != null) {
+                rulesModified = Files.getLastModifiedTime(rulesFile).toMillis();
+                text = Files.readString(rulesFile);
+            } else {
+                try (InputStream in = RuleExtractor.class.getResourceAsStream("/extraction-rules.json")) {
+                    if (in == null) {
+                        throw new IOException("extraction-rules.json not found");
+                    }
+                    text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+            return JSON.toType(text, Json.MAP_TYPE);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read extraction rules", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompiledRules compile(Map<String, Object> raw) {
+        long start = System.nanoTime();
+        Map<String, Object> fields = (Map<String, Object>) raw.getOrDefault("fields", Collections.emptyMap());
+        List<Object> containers = (List<Object>) raw.getOrDefault("containers", Collections.emptyList());
+
+        // Normalise the rules so the generated code never has to guess at defaults
+        Map<String, Object> normalized = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            Map<String, Object> rule = (Map<String, Object>) field.getValue();
+            normalized.put(field.getKey(), Map.of(
+                "attribute", String.valueOf(rule.getOrDefault("attribute", "text")),
+                "selectors", rule.getOrDefault("selectors", Collections.emptyList())));
+        }
+        List<String> fieldNames = new ArrayList<>(normalized.keySet());
+        Map<String, List<String>> selectors = new LinkedHashMap<>();
+        selectors.put("containers", strings(containers));
+        for (Map.Entry<String, Object> field : normalized.entrySet()) {
+            selectors.put(field.getKey(), strings((List<Object>) ((Map<String, Object>) field.getValue()).get("selectors")));
+        }
+
+        int nextVersion = ++version;
+        String functionName = "__accExtract_v" + nextVersion;
+        String source =
+            "(function() {" +
+            "  var R = " + JSON.toJson(Map.of("fields", normalized, "names", fieldNames, "containers", containers)) + ";" +
+            "  function val(el, attr) {" +
+            "    if (attr === 'text') return el.getClientRects().length ? (el.innerText || '').trim() : '';" +
+            "    if (attr === 'href') return (el.href || el.getAttribute('href') || '').trim();" +
+            "    if (attr === 'src') return (el.src || el.getAttribute('src') || '').trim();" +
+            "    return (el.getAttribute(attr) || '').trim();" +
+            "  }" +
+            "  function first(root, rule) {" +
+            "    for (var i = 0; i < rule.selectors.length; i++) {" +
+            "      var el = null;" +
+            "      try { el = root.querySelector(rule.selectors[i]); } catch (e) {}" +
+            "      var v = el ? val(el, rule.attribute) : '';" +
+            "      if (v) return v;" +
+            "    }" +
+            "    return '';" +
+            "  }" +
+            "  function row(root) {" +
+            "    var out = {};" +
+            "    R.names.forEach(function(n) { out[n] = first(root, R.fields[n]); });" +
+            "    return out;" +
+            "  }" +
+            "  window['" + functionName + "'] = function(roots) {" +
+            "    if (roots) return roots.map(row);" +
+            "    var rows = [];" +
+            "    R.containers.forEach(function(sel) {" +
+            "      var list = [];" +
+            "      try { list = document.querySelectorAll(sel); } catch (e) {}" +
+            "      Array.prototype.forEach.call(list, function(el) { rows.push(row(el)); });" +
+            "    });" +
+            "    return rows;" +
+            "  };" +
+            "})();";
+        return new CompiledRules(nextVersion, functionName, fieldNames, source, System.nanoTime() - start, selectors);
+    }
+
+    private static List<String> strings(List<Object> values) {
+        List<String> out = new ArrayList<>();
+        for (Object value : values) {
+            out.add(String.valueOf(value));
+        }
+        return out;
+    }
+
+    // Registered once: Chrome re-injects it into every new document, and the current one gets it now
+    @SuppressWarnings("unchecked")
+    private void register() {
+        if (driver instanceof HasCdp) {
+            HasCdp cdp = (HasCdp) driver;
+            try {
+                if (registeredScriptId != null) {
+                    cdp.executeCdpCommand("Page.removeScriptToEvaluateOnNewDocument", Map.of("identifier", registeredScriptId));
+                }
+                Map<String, Object> result = cdp.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", rules.source));
+                registeredScriptId = String.valueOf(result.get("identifier"));
+            } catch (Exception e) {
+                registeredScriptId = null;
+            }
+        }
+        try {
+            ((JavascriptExecutor) driver).executeScript(rules.source);
+        } catch (Exception e) {
+            // No document yet; the invoke path installs it on first use
+        }
+        System.out.println("✓ Extraction rules v" + rules.version + " compiled in "
+                           + String.format("%.2f", rules.compileNanos / 1_000_000.0) + " ms");
+    }
+
+    public void printStats() {
+        System.out.println("Extraction rules: v" + rules.version + ", " + executions + " executions, "
+                           + String.format("%.1f", executionNanos / 1_000_000.0) + " ms total, "
+                           + (executions == 0 ? "0" : String.format("%.2f", executionNanos / 1_000_000.0 / executions))
+                           + " ms average");
+    }
+}
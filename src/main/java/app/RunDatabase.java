@@ -0,0 +1,243 @@
+package app;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class RunDatabase implements AutoCloseable {
+    private static final String DEFAULT_FILE = "output/scrape_runs.db";
+    private static final List<String> INDEXED_COLUMNS = List.of("url", "category", "run_id");
+
+    private final Connection connection;
+    private final String runId;
+    private final String runner;
+    private final int batchSize;
+    private final Map<String, TableWriter> tables = new LinkedHashMap<>();
+    private boolean closed = false;
+
+    public RunDatabase(Path file, String runner, int batchSize) throws SQLException, IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        this.connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+        this.runner = runner;
+        this.batchSize = Math.max(1, batchSize);
+        this.runId = runner + "_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss_SSS"));
+
+        try (Statement statement = connection.createStatement()) {
+            // WAL lets a second runner write to the same file while this one is open
+            statement.execute("PRAGMA journal_mode=WAL");
+            statement.execute("PRAGMA synchronous=NORMAL");
+            statement.execute("CREATE TABLE IF NOT EXISTS runs (run_id TEXT PRIMARY KEY, runner TEXT, "
+                              + "started_at TEXT, finished_at TEXT, rows_written INTEGER)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT OR REPLACE INTO runs (run_id, runner, started_at) VALUES (?, ?, ?)")) {
+            insert.setString(1, runId);
+            insert.setString(2, runner);
+            insert.setString(3, LocalDateTime.now().toString());
+            insert.executeUpdate();
+        }
+        connection.setAutoCommit(false);
+        System.out.println("✓ SQLite sink: " + file.toAbsolutePath() + " (run " + runId + ")");
+    }
+
+    // Opened only when -Dsinks lists sqlite; everything else keeps writing CSV alone
+    public static RunDatabase fromProperties(String runner) {
+        if (!CompositeRecipeSink.namesFromProperties().contains("sqlite")) {
+            return null;
+        }
+        try {
+            return new RunDatabase(Paths.get(System.getProperty("sqlite.file", DEFAULT_FILE)), runner,
+                                   Integer.getInteger("sqlite.batchSize", 500));
+        } catch (SQLException | IOException e) {
+            System.err.println("⚠️ SQLite sink unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    // One writer per table; the table gets every header column plus run_id and runner
+    public synchronized TableWriter table(String name, String[] header) {
+        TableWriter writer = tables.get(name);
+        if (writer == null) {
+            try {
+                writer = new TableWriter(name, header);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Failed to prepare table " + name, e);
+            }
+            tables.put(name, writer);
+        }
+        return writer;
+    }
+
+    public class TableWriter implements RecipeSink {
+        private final String name;
+        private final int columnCount;
+        private final PreparedStatement insert;
+        private int pending = 0;
+        private int written = 0;
+
+        TableWriter(String name, String[] header) throws SQLException {
+            this.name = name;
+            this.columnCount = header.length;
+            List<String> columns = new ArrayList<>(List.of("run_id", "runner"));
+            columns.addAll(Arrays.asList(header));
+
+            synchronized (RunDatabase.this) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE IF NOT EXISTS " + quote(name) + " ("
+                                      + String.join(" TEXT, ", quoteAll(columns)) + " TEXT)");
+                    // Tables from older runs may predate a column; add it rather than failing the insert
+                    Set<String> existing = existingColumns(name);
+                    for (String column : columns) {
+                        if (!existing.contains(column.toLowerCase())) {
+                            statement.execute("ALTER TABLE " + quote(name) + " ADD COLUMN " + quote(column) + " TEXT");
+                        }
+                    }
+                    for (String column : INDEXED_COLUMNS) {
+                        if (columns.contains(column)) {
+                            statement.execute("CREATE INDEX IF NOT EXISTS " + quote("idx_" + name + "_" + column)
+                                              + " ON " + quote(name) + " (" + quote(column) + ")");
+                        }
+                    }
+                }
+                connection.commit();
+
+                StringBuilder placeholders = new StringBuilder();
+                for (int i = 0; i < columns.size(); i++) {
+                    placeholders.append(i == 0 ? "?" : ", ?");
+                }
+                this.insert = connection.prepareStatement("INSERT INTO " + quote(name) + " ("
+                                                          + String.join(", ", quoteAll(columns)) + ") VALUES (" + placeholders + ")");
+            }
+        }
+
+        @Override
+        public void write(String[] row) throws IOException {
+            synchronized (RunDatabase.this) {
+                if (closed) {
+                    return;
+                }
+                try {
+                    insert.setString(1, runId);
+                    insert.setString(2, runner);
+                    for (int i = 0; i < columnCount; i++) {
+                        insert.setString(i + 3, i < row.length ? row[i] : null);
+                    }
+                    insert.addBatch();
+                    if (++pending >= batchSize) {
+                        flushBatch();
+                    }
+                } catch (SQLException e) {
+                    throw new IOException("Failed to write to " + name, e);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (RunDatabase.this) {
+                try {
+                    flushBatch();
+                } catch (SQLException e) {
+                    throw new IOException("Failed to flush " + name, e);
+                }
+            }
+        }
+
+        // Closing a table only flushes it; the connection belongs to the database
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void flushBatch() throws SQLException {
+            if (pending == 0 || closed) {
+                return;
+            }
+            try {
+                insert.executeBatch();
+                connection.commit();
+                written += pending;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                pending = 0;
+            }
+        }
+    }
+
+    private Set<String> existingColumns(String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("PRAGMA table_info(" + quote(table) + ")")) {
+            while (rs.next()) {
+                columns.add(rs.getString("name").toLowerCase());
+            }
+        }
+        return columns;
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private static List<String> quoteAll(List<String> identifiers) {
+        List<String> quoted = new ArrayList<>();
+        for (String identifier : identifiers) {
+            quoted.add(quote(identifier));
+        }
+        return quoted;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        int total = 0;
+        for (TableWriter table : tables.values()) {
+            try {
+                table.flush();
+            } catch (IOException e) {
+                System.err.println("Error flushing " + table.name + ": " + e.getMessage());
+            }
+            total += table.written;
+        }
+        try (PreparedStatement finish = connection.prepareStatement(
+                "UPDATE runs SET finished_at = ?, rows_written = ? WHERE run_id = ?")) {
+            finish.setString(1, LocalDateTime.now().toString());
+            finish.setInt(2, total);
+            finish.setString(3, runId);
+            finish.executeUpdate();
+            connection.commit();
+            connection.close();
+            System.out.println("✓ SQLite run " + runId + ": " + total + " rows");
+        } catch (SQLException e) {
+            System.err.println("Error closing SQLite sink: " + e.getMessage());
+        } finally {
+            closed = true;
+        }
+    }
+}
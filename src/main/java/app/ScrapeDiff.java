@@ -0,0 +1,245 @@
+package app;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ScrapeDiff {
+    // Columns that change on every run and say nothing about the recipe itself
+    private static final Set<String> IGNORED_COLUMNS = Set.of("id", "scraped_at", "shed_phases", "image_local_path");
+    private static final String RUN_PREFIX = "comprehensive_scraped_data_";
+
+    private final int partitions;
+    private int added = 0;
+    private int removed = 0;
+    private int changed = 0;
+
+    public ScrapeDiff(int partitions) {
+        this.partitions = Math.max(1, partitions);
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: ScrapeDiff <previous.csv> <current.csv>");
+            return;
+        }
+        Path current = Paths.get(args[1]);
+        new ScrapeDiff(Integer.getInteger("diff.partitions", 16)).diff(Paths.get(args[0]), current, deltaPathFor(current));
+    }
+
+    // Diffs a finished run against the newest earlier run in the same directory, if there is one
+    public static void diffAgainstPrevious(Path current) {
+        try (Stream<Path> files = Files.list(current.toAbsolutePath().getParent())) {
+            String currentName = current.getFileName().toString();
+            Optional<Path> previous = files
+                .filter(p -> p.getFileName().toString().startsWith(RUN_PREFIX))
+                .filter(p -> p.getFileName().toString().endsWith(".csv"))
+                .filter(p -> p.getFileName().toString().compareTo(currentName) < 0)
+                .max(Comparator.comparing(p -> p.getFileName().toString()));
+            if (previous.isEmpty()) {
+                System.out.println("No previous run to diff against");
+                return;
+            }
+            new ScrapeDiff(Integer.getInteger("diff.partitions", 16)).diff(previous.get(), current, deltaPathFor(current));
+        } catch (IOException e) {
+            System.err.println("Error diffing runs: " + e.getMessage());
+        }
+    }
+
+    private static Path deltaPathFor(Path current) {
+        String name = current.getFileName().toString().replace(RUN_PREFIX, "comprehensive_scraped_delta_");
+        return current.resolveSibling(name.equals(current.getFileName().toString()) ? "delta_" + name : name);
+    }
+
+    public void diff(Path previous, Path current, Path delta) {
+        Path work = null;
+        try {
+            work = Files.createTempDirectory("scrape-diff");
+            String[] previousHeader = partition(previous, work.resolve("previous"));
+            String[] currentHeader = partition(current, work.resolve("current"));
+
+            // Compare only the columns both runs have, and write the delta in the current layout
+            List<String> compared = new ArrayList<>();
+            for (String column : currentHeader) {
+                if (!IGNORED_COLUMNS.contains(column) && Arrays.asList(previousHeader).contains(column)) {
+                    compared.add(column);
+                }
+            }
+
+            try (CSVWriter writer = new CSVWriter(new FileWriter(delta.toFile()))) {
+                List<String> header = new ArrayList<>(List.of("change_type", "key", "changed_fields"));
+                header.addAll(Arrays.asList(currentHeader));
+                writer.writeNext(header.toArray(new String[0]));
+
+                // Only one partition of the previous run is held in memory at a time
+                for (int i = 0; i < partitions; i++) {
+                    diffPartition(work.resolve("previous"), work.resolve("current"), i,
+                                  previousHeader, currentHeader, compared, writer);
+                }
+            }
+
+            System.out.println("Δ Diff vs " + previous.getFileName() + ": " + added + " added, "
+                               + removed + " removed, " + changed + " changed -> " + delta.toAbsolutePath());
+        } catch (IOException | CsvValidationException e) {
+            System.err.println("Error diffing runs: " + e.getMessage());
+        } finally {
+            deleteQuietly(work);
+        }
+    }
+
+    private String[] partition(Path file, Path dir) throws IOException, CsvValidationException {
+        Files.createDirectories(dir);
+        CSVWriter[] writers = new CSVWriter[partitions];
+        try (CSVReader reader = new CSVReader(new FileReader(file.toFile()))) {
+            String[] header = reader.readNext();
+            if (header == null) {
+                return new String[0];
+            }
+            for (int i = 0; i < partitions; i++) {
+                writers[i] = new CSVWriter(new FileWriter(dir.resolve(i + ".csv").toFile()));
+            }
+            int urlColumn = Arrays.asList(header).indexOf("url");
+            int titleColumn = Arrays.asList(header).indexOf("title");
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                String key = recipeKey(row, urlColumn, titleColumn);
+                if (key.isEmpty()) {
+                    continue;
+                }
+                String[] keyed = new String[row.length + 1];
+                keyed[0] = key;
+                System.arraycopy(row, 0, keyed, 1, row.length);
+                writers[Math.floorMod(key.hashCode(), partitions)].writeNext(keyed);
+            }
+            return header;
+        } finally {
+            for (CSVWriter writer : writers) {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+    }
+
+    private void diffPartition(Path previousDir, Path currentDir, int partition, String[] previousHeader,
+                               String[] currentHeader, List<String> compared, CSVWriter delta)
+            throws IOException, CsvValidationException {
+        Map<String, String[]> previousRows = new HashMap<>();
+        Path previousPartition = previousDir.resolve(partition + ".csv");
+        // A run with no rows (an empty or header-less CSV) never wrote its partition files
+        if (Files.exists(previousPartition)) {
+            try (CSVReader reader = new CSVReader(new FileReader(previousPartition.toFile()))) {
+                String[] row;
+                while ((row = reader.readNext()) != null) {
+                    previousRows.putIfAbsent(row[0], Arrays.copyOfRange(row, 1, row.length));
+                }
+            }
+        }
+
+        Map<String, Integer> previousIndex = index(previousHeader);
+        Map<String, Integer> currentIndex = index(currentHeader);
+        Set<String> seen = new HashSet<>();
+        Path currentPartition = currentDir.resolve(partition + ".csv");
+        try (CSVReader reader = new CSVReader(Files.exists(currentPartition)
+                                              ? new FileReader(currentPartition.toFile()) : new StringReader(""))) {
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                String key = row[0];
+                if (!seen.add(key)) {
+                    continue; // Duplicate of a recipe already compared in this run
+                }
+                String[] currentRow = Arrays.copyOfRange(row, 1, row.length);
+                String[] previousRow = previousRows.remove(key);
+                if (previousRow == null) {
+                    added++;
+                    write(delta, "added", key, "", currentRow);
+                    continue;
+                }
+
+                List<String> changedFields = new ArrayList<>();
+                for (String column : compared) {
+                    if (!value(previousRow, previousIndex.get(column)).equals(value(currentRow, currentIndex.get(column)))) {
+                        changedFields.add(column);
+                    }
+                }
+                if (!changedFields.isEmpty()) {
+                    changed++;
+                    write(delta, "changed", key, String.join("|", changedFields), currentRow);
+                }
+            }
+        }
+
+        for (Map.Entry<String, String[]> gone : previousRows.entrySet()) {
+            removed++;
+            // Re-lay the old row out in the current column order
+            String[] relaid = new String[currentHeader.length];
+            for (int i = 0; i < currentHeader.length; i++) {
+                Integer column = previousIndex.get(currentHeader[i]);
+                relaid[i] = column == null ? "" : value(gone.getValue(), column);
+            }
+            write(delta, "removed", gone.getKey(), "", relaid);
+        }
+    }
+
+    private static void write(CSVWriter delta, String type, String key, String changedFields, String[] row) {
+        String[] out = new String[row.length + 3];
+        out[0] = type;
+        out[1] = key;
+        out[2] = changedFields;
+        System.arraycopy(row, 0, out, 3, row.length);
+        delta.writeNext(out);
+    }
+
+    static String recipeKey(String[] row, int urlColumn, int titleColumn) {
+        String url = value(row, urlColumn);
+        if (!url.isEmpty()) {
+            return url;
+        }
+        String title = value(row, titleColumn);
+        return title.isEmpty() ? "" : "title:" + title.toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    private static Map<String, Integer> index(String[] header) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            index.put(header[i], i);
+        }
+        return index;
+    }
+
+    private static String value(String[] row, Integer column) {
+        return column == null || column < 0 || column >= row.length || row[column] == null ? "" : row[column].trim();
+    }
+
+    private static void deleteQuietly(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            // Temp files are cleaned up by the OS eventually
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package app;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Browser RSS, JS heap and command latency for one session, and the state needed to carry on in a fresh one
+public class SessionHealth {
+    private static final int LATENCY_WINDOW = 20;
+
+    private final WebDriver driver;
+    private final long maxRssMb;
+    private final long maxHeapMb;
+    private final long maxLatencyMs;
+    private final Deque<Long> latencies = new ArrayDeque<>();
+    private boolean metricsEnabled = false;
+    // Chrome's profile directory for this session, which tells its browser process apart from other pooled ones
+    private final String userDataDir;
+    private ProcessHandle browserProcess;
+
+    public SessionHealth(WebDriver driver, long maxRssMb, long maxHeapMb, long maxLatencyMs) {
+        this.driver = driver;
+        this.maxRssMb = maxRssMb;
+        this.maxHeapMb = maxHeapMb;
+        this.maxLatencyMs = maxLatencyMs;
+        this.userDataDir = userDataDir(driver);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String userDataDir(WebDriver driver) {
+        try {
+            Object chrome = ((HasCapabilities) driver).getCapabilities().getCapability("chrome");
+            Object dir = chrome instanceof Map ? ((Map<String, Object>) chrome).get("userDataDir") : null;
+            return dir == null ? "" : String.valueOf(dir);
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    // 0 disables a threshold
+    public static SessionHealth fromProperties(WebDriver driver) {
+        return new SessionHealth(driver,
+            Long.getLong("health.maxRssMb", 2048),
+            Long.getLong("health.maxHeapMb", 512),
+            Long.getLong("health.maxLatencyMs", 1500));
+    }
+
+    // Round trip of a no-op script: grows with renderer pressure long before commands start timing out
+    public long ping() {
+        long start = System.currentTimeMillis();
+        try {
+            ((JavascriptExecutor) driver).executeScript("return 1");
+        } catch (Exception e) {
+            return -1;
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        latencies.addLast(elapsed);
+        if (latencies.size() > LATENCY_WINDOW) {
+            latencies.removeFirst();
+        }
+        return elapsed;
+    }
+
+    public long averageLatencyMs() {
+        if (latencies.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (long latency : latencies) {
+            total += latency;
+        }
+        return total / latencies.size();
+    }
+
+    // Used JS heap of the current page target, from CDP Performance.getMetrics
+    @SuppressWarnings("unchecked")
+    public long jsHeapMb() {
+        try {
+            HasCdp cdp = (HasCdp) driver;
+            if (!metricsEnabled) {
+                cdp.executeCdpCommand("Performance.enable", Map.of());
+                metricsEnabled = true;
+            }
+            Map<String, Object> result = cdp.executeCdpCommand("Performance.getMetrics", Map.of());
+            for (Map<String, Object> metric : (List<Map<String, Object>>) result.get("metrics")) {
+                if ("JSHeapUsedSize".equals(metric.get("name"))) {
+                    return ((Number) metric.get("value")).longValue() / (1024 * 1024);
+                }
+            }
+        } catch (Exception e) {
+            // Not a Chromium driver, or the page is mid-navigation
+        }
+        return -1;
+    }
+
+    // Resident memory of every process this JVM started (chromedriver, Chrome and its renderers); Linux only
+    public static long browserRssMb() {
+        return rssMb(ProcessHandle.current().descendants()::iterator);
+    }
+
+    // Resident memory of this session's own Chrome (browser process, renderers, GPU); every browser this JVM
+    // started when the session's process cannot be told apart
+    public long sessionRssMb() {
+        ProcessHandle browser = browserProcess();
+        if (browser == null) {
+            return browserRssMb();
+        }
+        List<ProcessHandle> tree = new ArrayList<>();
+        tree.add(browser);
+        browser.descendants().forEach(tree::add);
+        return rssMb(tree);
+    }
+
+    // The top-most descendant launched with this session's --user-data-dir
+    private ProcessHandle browserProcess() {
+        if (browserProcess != null && browserProcess.isAlive()) {
+            return browserProcess;
+        }
+        if (userDataDir.isEmpty()) {
+            return null;
+        }
+        String flag = "--user-data-dir=" + userDataDir;
+        for (ProcessHandle process : (Iterable<ProcessHandle>) ProcessHandle.current().descendants()::iterator) {
+            Optional<String> commandLine = process.info().commandLine();
+            boolean parentMatches = process.parent().flatMap(p -> p.info().commandLine())
+                .map(c -> c.contains(flag)).orElse(false);
+            if (commandLine.isPresent() && commandLine.get().contains(flag) && !parentMatches) {
+                browserProcess = process;
+                return process;
+            }
+        }
+        return null;
+    }
+
+    private static long rssMb(Iterable<ProcessHandle> processes) {
+        long kb = 0;
+        boolean found = false;
+        for (ProcessHandle process : processes) {
+            Path status = Paths.get("/proc", String.valueOf(process.pid()), "status");
+            try {
+                for (String line : Files.readAllLines(status)) {
+                    if (line.startsWith("VmRSS:")) {
+                        kb += Long.parseLong(line.replaceAll("[^0-9]", ""));
+                        found = true;
+                        break;
+                    }
+                }
+            } catch (Exception e) {
+                // Process exited meanwhile, or no /proc on this platform
+            }
+        }
+        return found ? kb / 1024 : -1;
+    }
+
+    // Null while healthy, otherwise the first threshold crossed
+    public String check() {
+        ping();
+        long latency = averageLatencyMs();
+        if (maxLatencyMs > 0 && latencies.size() >= 3 && latency > maxLatencyMs) {
+            return "command latency " + latency + " ms > " + maxLatencyMs + " ms";
+        }
+        long heap = jsHeapMb();
+        if (maxHeapMb > 0 && heap > maxHeapMb) {
+            return "JS heap " + heap + " MB > " + maxHeapMb + " MB";
+        }
+        long rss = sessionRssMb();
+        if (maxRssMb > 0 && rss > maxRssMb) {
+            return "browser RSS " + rss + " MB > " + maxRssMb + " MB";
+        }
+        return null;
+    }
+
+    public String describe() {
+        return "RSS " + sessionRssMb() + " MB, JS heap " + jsHeapMb() + " MB, latency " + averageLatencyMs() + " ms";
+    }
+
+    // Cookies, localStorage (where consent banners remember their answer) and the page to come back to
+    public static class SavedState {
+        final String url;
+        final Set<Cookie> cookies;
+        final Map<String, Object> localStorage;
+
+        SavedState(String url, Set<Cookie> cookies, Map<String, Object> localStorage) {
+            this.url = url;
+            this.cookies = cookies;
+            this.localStorage = localStorage;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static SavedState save(WebDriver driver) {
+        Map<String, Object> storage = Collections.emptyMap();
+        try {
+            Object result = ((JavascriptExecutor) driver).executeScript(
+                "var out = {}; for (var i = 0; i < localStorage.length; i++) {" +
+                "  var k = localStorage.key(i); out[k] = localStorage.getItem(k); } return out;");
+            if (result instanceof Map) {
+                storage = (Map<String, Object>) result;
+            }
+        } catch (Exception e) {
+            // Storage blocked on this origin; cookies still carry most state
+        }
+        return new SavedState(driver.getCurrentUrl(), driver.manage().getCookies(), storage);
+    }
+
+    // Cookies can only be set on their own origin, so the origin is loaded first, then the saved page; a session saved
+    // on about:blank, data: or an error page comes back on fallbackUrl instead
+    public static void restore(WebDriver driver, SavedState state, String fallbackUrl, Waits waits) {
+        String url = isHttp(state.url) ? state.url : fallbackUrl;
+        URI uri = URI.create(url);
+        driver.get(uri.getScheme() + "://" + uri.getRawAuthority() + "/");
+        for (Cookie cookie : state.cookies) {
+            try {
+                driver.manage().addCookie(cookie);
+            } catch (Exception e) {
+                // Cookies for other domains stay behind
+            }
+        }
+        if (!state.localStorage.isEmpty()) {
+            ((JavascriptExecutor) driver).executeScript(
+                "var items = arguments[0]; for (var k in items) localStorage.setItem(k, items[k]);",
+                state.localStorage);
+        }
+        driver.get(url);
+        waits.pageSettled(Duration.ofSeconds(10));
+    }
+
+    private static boolean isHttp(String url) {
+        try {
+            URI uri = URI.create(url);
+            return ("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))
+                   && uri.getRawAuthority() != null;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // A set that forgets its oldest entries, for bookkeeping that must not grow with run length
+    public static <T> Set<T> boundedSet(int maxEntries) {
+        return Collections.newSetFromMap(new LinkedHashMap<T, Boolean>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<T, Boolean> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+}
@@ -0,0 +1,243 @@
+package app;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonInput;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class StructuredDataExtractor {
+    // JSON-LD blocks, JSON script payloads (Next.js and friends) and common hydration globals
+    private static final String PAYLOAD_SCRIPT =
+        "var out = [];" +
+        "document.querySelectorAll('script[type=\"application/ld+json\"], script[type=\"application/json\"], script#__NEXT_DATA__')" +
+        "  .forEach(function(s) { if (s.textContent) out.push(s.textContent); });" +
+        "['__NUXT__', '__APOLLO_STATE__', '__INITIAL_STATE__', '__PRELOADED_STATE__'].forEach(function(k) {" +
+        "  try { if (window[k]) out.push(JSON.stringify(window[k])); } catch (e) {}" +
+        "});" +
+        "return out;";
+
+    // The same collection as an expression, for tabs driven over CDP Runtime.evaluate
+    static final String PAYLOAD_EXPRESSION = "(function() {" + PAYLOAD_SCRIPT + "})()";
+
+    private static final Json JSON = new Json();
+
+    public static List<Map<String, String>> extract(WebDriver driver) {
+        Object payloads = ((JavascriptExecutor) driver).executeScript(PAYLOAD_SCRIPT);
+        return fromPayloads(payloads, driver.getCurrentUrl());
+    }
+
+    static List<Map<String, String>> fromPayloads(Object payloads, String pageUrl) {
+        List<Map<String, String>> recipes = new ArrayList<>();
+        if (payloads instanceof List) {
+            for (Object payload : (List<?>) payloads) {
+                try {
+                    parse(String.valueOf(payload), pageUrl, recipes::add);
+                } catch (Exception e) {
+                    // Malformed payloads are common, skip them
+                }
+            }
+        }
+        return recipes;
+    }
+
+    // Streams through the payload and hands each recipe to the consumer as soon as its object closes
+    public static void parse(String json, String pageUrl, Consumer<Map<String, String>> consumer) {
+        try (JsonInput input = JSON.newInput(new StringReader(json))) {
+            readValue(input, object -> {
+                if (isRecipe(object)) {
+                    consumer.accept(toFields(object, pageUrl));
+                }
+            });
+        }
+    }
+
+    private static Object readValue(JsonInput input, Consumer<Map<String, Object>> onObject) {
+        switch (input.peek()) {
+            case START_MAP:
+                Map<String, Object> map = new LinkedHashMap<>();
+                input.beginObject();
+                while (input.hasNext()) {
+                    String name = input.nextName();
+                    map.put(name, readValue(input, onObject));
+                }
+                input.endObject();
+                onObject.accept(map);
+                return map;
+            case START_COLLECTION:
+                List<Object> list = new ArrayList<>();
+                input.beginArray();
+                while (input.hasNext()) {
+                    list.add(readValue(input, onObject));
+                }
+                input.endArray();
+                return list;
+            case STRING:
+                return input.nextString();
+            case NUMBER:
+                return input.nextNumber();
+            case BOOLEAN:
+                return input.nextBoolean();
+            case NULL:
+                return input.nextNull();
+            default:
+                input.skipValue();
+                return null;
+        }
+    }
+
+    static boolean isRecipe(Map<String, Object> object) {
+        Object type = object.get("@type");
+        if ("Recipe".equals(type) || (type instanceof Collection && ((Collection<?>) type).contains("Recipe"))) {
+            return true;
+        }
+        if (first(object, "name", "title").isEmpty()) {
+            return false;
+        }
+
+        // Hydration payloads have no @type, so require at least two recipe-specific groups of keys
+        int signals = 0;
+        if (has(object, "ingredients", "recipeIngredient")) signals++;
+        if (has(object, "nutrition", "calories", "energy")) signals++;
+        if (has(object, "totalTime", "prepTime", "cookTime")) signals++;
+        if (has(object, "yields", "servings", "recipeYield")) signals++;
+        return signals >= 2;
+    }
+
+    static Map<String, String> toFields(Map<String, Object> recipe, String pageUrl) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("title", first(recipe, "name", "title", "headline"));
+        fields.put("description", first(recipe, "description", "subtitle", "headline"));
+        fields.put("price", price(recipe));
+        fields.put("calories", calories(recipe));
+        fields.put("servings", first(recipe, "recipeYield", "yields", "servings"));
+        fields.put("cook_time", duration(first(recipe, "totalTime", "cookTime", "prepTime")));
+        fields.put("difficulty", first(recipe, "difficulty"));
+        fields.put("ingredients", joined(value(recipe, "recipeIngredient", "ingredients"), "; "));
+        fields.put("dietary_tags", joined(value(recipe, "suitableForDiet", "recipeCategory", "tags", "labels", "keywords"), ", "));
+        fields.put("url", absolute(first(recipe, "url", "canonicalUrl", "link"), pageUrl));
+        fields.put("image_url", absolute(image(value(recipe, "image", "imagePath", "imageUrl")), pageUrl));
+        return fields;
+    }
+
+    private static String price(Map<String, Object> recipe) {
+        Object offers = recipe.get("offers");
+        if (offers instanceof List && !((List<?>) offers).isEmpty()) {
+            offers = ((List<?>) offers).get(0);
+        }
+        if (offers instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> offer = (Map<String, Object>) offers;
+            String amount = first(offer, "price");
+            if (!amount.isEmpty()) {
+                String currency = first(offer, "priceCurrency");
+                return currency.isEmpty() ? amount : currency + " " + amount;
+            }
+        }
+        return first(recipe, "price", "pricePerServing");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String calories(Map<String, Object> recipe) {
+        Object nutrition = recipe.get("nutrition");
+        if (nutrition instanceof Map) {
+            return first((Map<String, Object>) nutrition, "calories", "energy");
+        }
+        if (nutrition instanceof List) {
+            // Hydration payloads often list nutrients as {name, amount, unit}
+            for (Object entry : (List<Object>) nutrition) {
+                if (entry instanceof Map) {
+                    Map<String, Object> nutrient = (Map<String, Object>) entry;
+                    String name = first(nutrient, "name", "type").toLowerCase();
+                    if (name.contains("calorie") || name.contains("energy")) {
+                        return (first(nutrient, "amount", "value") + " " + first(nutrient, "unit")).trim();
+                    }
+                }
+            }
+        }
+        return first(recipe, "calories", "energy");
+    }
+
+    // ISO-8601 durations such as PT1H10M become "70 min" to match what the DOM path produces
+    private static String duration(String value) {
+        if (!value.startsWith("P")) {
+            return value;
+        }
+        try {
+            return Duration.parse(value).toMinutes() + " min";
+        } catch (Exception e) {
+            return value;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String image(Object value) {
+        if (value instanceof List && !((List<?>) value).isEmpty()) {
+            return image(((List<?>) value).get(0));
+        }
+        if (value instanceof Map) {
+            return first((Map<String, Object>) value, "url", "contentUrl", "src");
+        }
+        return value == null ? "" : String.valueOf(value).trim();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String joined(Object value, String separator) {
+        if (value instanceof List) {
+            List<String> parts = new ArrayList<>();
+            for (Object item : (List<Object>) value) {
+                String part = item instanceof Map ? first((Map<String, Object>) item, "name", "text", "title") : String.valueOf(item);
+                if (part != null && !part.trim().isEmpty()) {
+                    parts.add(part.trim());
+                }
+            }
+            return String.join(separator, parts);
+        }
+        return value == null ? "" : String.valueOf(value).trim();
+    }
+
+    static String absolute(String url, String pageUrl) {
+        if (url.isEmpty()) {
+            return url;
+        }
+        try {
+            return URI.create(pageUrl).resolve(url).toString();
+        } catch (Exception e) {
+            return url;
+        }
+    }
+
+    private static Object value(Map<String, Object> object, String... keys) {
+        for (String key : keys) {
+            Object value = object.get(key);
+            if (value != null && !"".equals(value)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static boolean has(Map<String, Object> object, String... keys) {
+        return value(object, keys) != null;
+    }
+
+    private static String first(Map<String, Object> object, String... keys) {
+        Object value = value(object, keys);
+        if (value instanceof List) {
+            value = ((List<?>) value).isEmpty() ? null : ((List<?>) value).get(0);
+        }
+        if (value == null || value instanceof Map) {
+            return "";
+        }
+        return String.valueOf(value).trim();
+    }
+}
@@ -5,7 +5,6 @@ import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.*;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
 import org.openqa.selenium.support.ui.WebDriverWait;
@@ -20,17 +19,34 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 public class SystematicNavigationTester {
     private static WebDriver driver;
     private static WebDriverWait wait;
+    private static HoverEngine hoverEngine;
+    private static Waits waits;
+    private static CircuitBreakers breakers = CircuitBreakers.fromProperties();
+    private static PagePerformance performance;
+    private static String currentSection = "home";
     private static CSVWriter csvWriter;
+    private static NetworkArchive networkArchive;
+    private static RunDatabase database;
+    private static RecipeSink dbTable;
     private static int testCount = 0;
-    private static Set<String> visitedUrls = new HashSet<>();
+    // Sections tested on every run (MonitorDaemon re-checks the same list)
+    static final List<String> TARGET_SECTIONS = List.of(
+        "Our Plans", "How it works", "Our values", "Gift cards", "Nutrition guide",
+        "Weekly Menu", "Recipes", "Keto", "Plant-based", "Mediterranean"
+    );
+    // Locators are shared with LocatorProfiler, which times them against the live page
+    static final By CLICKABLE_SELECTOR = By.cssSelector("a[href], button");
+    private static Set<String> visitedUrls = SessionHealth.boundedSet(Integer.getInteger("visited.max", 10_000));
     private static String baseUrl = "https://www.greenchef.com/";
+    // Cell values are capped at 100 characters unless -Dscrape.truncate=0 (or another length) is given
+    private static TruncationPolicy truncation = TruncationPolicy.fromProperty("scrape.truncate", 100);
+    private static Duration linkIndexTtl = Duration.ofMinutes(Long.getLong("linkIndex.ttlMinutes", 10));
 
     public static void main(String[] args) {
         System.out.println("=== Systematic Navigation & Data Scraping ===");
@@ -70,6 +86,9 @@ public class SystematicNavigationTester {
         
         driver = new ChromeDriver(options);
         wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+        networkArchive = NetworkArchive.attachFromProperties(driver, "navigation_tester");
+        hoverEngine = new HoverEngine(driver);
+        waits = new Waits(driver);
         
         System.out.println("✓ WebDriver initialized successfully");
     }
@@ -88,6 +107,11 @@ public class SystematicNavigationTester {
             String[] header = {"test_id", "section", "element_type", "action", "element_text", "element_url", 
                               "scraped_data", "success", "error_message", "current_url", "timestamp"};
             csvWriter.writeNext(header);
+            performance = new PagePerformance(driver, outDir.resolve("systematic_navigation_perf_" + timestamp + ".csv"));
+            database = RunDatabase.fromProperties("navigation_tester");
+            if (database != null) {
+                dbTable = database.table("link_tests", header);
+            }
             
             System.out.println("✓ Output file configured: " + csvPath.toAbsolutePath());
         } catch (IOException e) {
@@ -96,102 +120,96 @@ public class SystematicNavigationTester {
     }
 
     private static void testSpecificSections() {
-        // Define specific sections to test
-        String[] targetSections = {
-            "Our Plans", "How it works", "Our values", "Gift cards", "Nutrition guide",
-            "Weekly Menu", "Recipes", "Keto", "Plant-based", "Mediterranean"
-        };
-        
-        for (String section : targetSections) {
+        for (String section : TARGET_SECTIONS) {
             System.out.println("\n=== Testing Section: " + section + " ===");
+            currentSection = section;
             
-            // Go back to homepage first
-            navigateToPage(baseUrl);
+            // Find and test the specific section using the cached homepage index
+            boolean reached = testSection(section);
             
-            // Find and test the specific section
-            testSection(section);
-            
-            // Scrape data from current page
-            scrapeCurrentPageData(section);
+            // Scrape data from the section's page; otherwise the browser is still on another section's page
+            if (reached) {
+                scrapeCurrentPageData(section);
+            } else {
+                System.out.println("⏭️  Section not reached, nothing to scrape for " + section);
+            }
         }
     }
 
-    private static void testSection(String sectionName) {
+    private static LinkIndex homepageIndex() {
+        LinkIndex index = LinkIndex.cached(baseUrl, linkIndexTtl);
+        if (index != null) {
+            return index;
+        }
+        
+        // Build the homepage index once, then reuse it until the TTL expires
+        openHomepage();
+        index = LinkIndex.build(driver, baseUrl);
+        System.out.println("🗂️  Indexed " + index.size() + " homepage links and buttons");
+        return index;
+    }
+
+    private static void openHomepage() {
+        if (!baseUrl.equals(driver.getCurrentUrl())) {
+            driver.get(baseUrl);
+            wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+            closeOverlays();
+        }
+    }
+
+    // True when the browser ended up on the section's page
+    private static boolean testSection(String sectionName) {
         try {
-            // Look for links containing the section name
-            List<WebElement> sectionLinks = driver.findElements(By.cssSelector("a[href]"));
+            LinkIndex index = homepageIndex();
             
-            for (WebElement link : sectionLinks) {
-                try {
-                    String linkText = link.getText().trim().toLowerCase();
-                    String href = link.getAttribute("href");
-                    
-                    if (linkText.contains(sectionName.toLowerCase()) && 
-                        href != null && href.startsWith("https://www.greenchef.com")) {
-                        
-                        System.out.println("🔗 Found section link: '" + link.getText() + "' -> " + href);
-                        
-                        // Test hover
-                        testHoverAction(link, sectionName + " hover");
-                        
-                        // Test click and navigate
-                        if (!visitedUrls.contains(href)) {
-                            testClickAndNavigate(link, sectionName + " click", href);
-                            
-                            // Wait for page to load
-                            Thread.sleep(3000);
-                            
-                            // Test additional elements on this page
-                            testPageElements(sectionName);
-                            
-                            return; // Found and tested the section
-                        }
-                    }
-                } catch (StaleElementReferenceException e) {
-                    System.out.println("  - Link became stale, skipping");
-                } catch (Exception e) {
-                    System.out.println("  - Error testing link: " + e.getMessage());
+            // Look for links containing the section name, then navigation links
+            for (LinkIndex.Entry entry : index.find(sectionName, "https://www.greenchef.com", "link", "nav")) {
+                Boolean reached = testDirectNavigation(sectionName, entry, " click");
+                if (reached != null) {
+                    return reached;
+                }
+            }
+            for (LinkIndex.Entry entry : index.find(sectionName, null, "nav")) {
+                Boolean reached = testDirectNavigation(sectionName, entry, " nav click");
+                if (reached != null) {
+                    return reached;
                 }
             }
             
-            // If not found as direct link, try alternative approaches
-            testAlternativeSectionAccess(sectionName);
+            // Buttons have no href, so they still need the homepage and a real click
+            if (!index.find(sectionName, null, "button").isEmpty()) {
+                return testSectionButton(sectionName);
+            }
             
         } catch (Exception e) {
             System.out.println("❌ Error testing section " + sectionName + ": " + e.getMessage());
         }
+        return false;
+    }
+
+    // Null when the entry was not tried (no href or already visited), otherwise whether the navigation worked
+    private static Boolean testDirectNavigation(String sectionName, LinkIndex.Entry entry, String actionSuffix) {
+        if (entry.href.isEmpty() || visitedUrls.contains(entry.href)) {
+            return null;
+        }
+        
+        System.out.println("🔗 Found section link: '" + entry.text + "' -> " + entry.href);
+        navigateToPage(entry.href);
+        
+        String newUrl = driver.getCurrentUrl();
+        boolean success = visitedUrls.contains(entry.href);
+        logTest("navigate_direct", sectionName + actionSuffix, entry.text, newUrl, "", success,
+                success ? "" : "Navigation failed", baseUrl);
+        
+        if (success) {
+            testPageElements(sectionName);
+        }
+        return success;
     }
 
-    private static void testAlternativeSectionAccess(String sectionName) {
+    private static boolean testSectionButton(String sectionName) {
         try {
-            // Try to find section in navigation menus
-            List<WebElement> navElements = driver.findElements(By.cssSelector("nav a, .nav a, .navigation a, .menu a"));
-            
-            for (WebElement navElement : navElements) {
-                try {
-                    String navText = navElement.getText().trim().toLowerCase();
-                    
-                    if (navText.contains(sectionName.toLowerCase())) {
-                        System.out.println("🧭 Found in navigation: '" + navElement.getText() + "'");
-                        
-                        // Test hover
-                        testHoverAction(navElement, sectionName + " nav hover");
-                        
-                        // Test click
-                        String href = navElement.getAttribute("href");
-                        if (href != null && !visitedUrls.contains(href)) {
-                            testClickAndNavigate(navElement, sectionName + " nav click", href);
-                            Thread.sleep(3000);
-                            testPageElements(sectionName);
-                            return;
-                        }
-                    }
-                } catch (Exception e) {
-                    // Continue with next element
-                }
-            }
-            
-            // Try to find section in buttons
+            openHomepage();
             List<WebElement> buttons = driver.findElements(By.cssSelector("button"));
             for (WebElement button : buttons) {
                 try {
@@ -200,23 +218,23 @@ public class SystematicNavigationTester {
                     if (buttonText.contains(sectionName.toLowerCase())) {
                         System.out.println("🔘 Found as button: '" + button.getText() + "'");
                         
-                        testHoverAction(button, sectionName + " button hover");
+                        testHoverActions(List.of(button), List.of(button.getText()), sectionName + " button hover");
                         
                         if (isSafeToClick(button)) {
                             testClickAction(button, sectionName + " button click");
-                            Thread.sleep(3000);
+                            waits.pageSettled(Duration.ofSeconds(5));
                             testPageElements(sectionName);
-                            return;
+                            return true;
                         }
                     }
                 } catch (Exception e) {
                     // Continue with next element
                 }
             }
-            
         } catch (Exception e) {
-            System.out.println("❌ Error in alternative section access: " + e.getMessage());
+            System.out.println("❌ Error in button section access: " + e.getMessage());
         }
+        return false;
     }
 
     private static void testPageElements(String sectionName) {
@@ -224,25 +242,20 @@ public class SystematicNavigationTester {
         
         try {
             // Test all clickable elements on current page
-            List<WebElement> clickableElements = driver.findElements(By.cssSelector("a[href], button"));
+            PageModel model = PageModel.capture(driver);
+            List<WebElement> clickableElements = model.find(CLICKABLE_SELECTOR);
+            List<WebElement> tested = new ArrayList<>();
+            List<String> texts = new ArrayList<>();
             
             for (int i = 0; i < Math.min(clickableElements.size(), 10); i++) {
                 WebElement element = clickableElements.get(i);
                 try {
-                    if (element.isDisplayed() && element.isEnabled()) {
-                        String elementText = element.getText().trim();
-                        String tagName = element.getTagName();
-                        
+                    if (model.isVisible(element) && model.isEnabled(element)) {
+                        String elementText = model.text(element);
                         if (!elementText.isEmpty()) {
-                            System.out.println("  🧪 Testing " + tagName + ": '" + elementText + "'");
-                            
-                            // Test hover
-                            testHoverAction(element, sectionName + " page element hover");
-                            
-                            // Test click if safe
-                            if (isSafeToClick(element)) {
-                                testClickAction(element, sectionName + " page element click");
-                            }
+                            System.out.println("  🧪 Testing " + element.getTagName() + ": '" + elementText + "'");
+                            tested.add(element);
+                            texts.add(elementText);
                         }
                     }
                 } catch (StaleElementReferenceException e) {
@@ -252,6 +265,22 @@ public class SystematicNavigationTester {
                 }
             }
             
+            // Every hover first, in one pass, while the page is still the one they were found on
+            testHoverActions(tested, texts, sectionName + " page element hover");
+            
+            // Test click if safe
+            for (WebElement element : tested) {
+                try {
+                    if (isSafeToClick(element)) {
+                        testClickAction(element, sectionName + " page element click");
+                    }
+                } catch (StaleElementReferenceException e) {
+                    System.out.println("    - Element became stale, skipping");
+                } catch (Exception e) {
+                    System.out.println("    - Error testing element: " + e.getMessage());
+                }
+            }
+            
         } catch (Exception e) {
             System.out.println("❌ Error testing page elements: " + e.getMessage());
         }
@@ -261,61 +290,10 @@ public class SystematicNavigationTester {
         System.out.println("📊 Scraping data from " + sectionName + " page");
         
         try {
-            // Scrape headings
-            List<WebElement> headings = driver.findElements(By.cssSelector("h1, h2, h3, h4"));
-            for (WebElement heading : headings) {
-                try {
-                    String headingText = heading.getText().trim();
-                    if (!headingText.isEmpty()) {
-                        logScrapedData(sectionName, "heading", heading.getTagName(), headingText, "", headingText, true, "");
-                    }
-                } catch (Exception e) {
-                    // Skip problematic headings
-                }
-            }
-            
-            // Scrape paragraphs
-            List<WebElement> paragraphs = driver.findElements(By.cssSelector("p"));
-            for (WebElement paragraph : paragraphs) {
-                try {
-                    String paragraphText = paragraph.getText().trim();
-                    if (!paragraphText.isEmpty() && paragraphText.length() > 20) {
-                        logScrapedData(sectionName, "paragraph", "p", paragraphText, "", paragraphText, true, "");
-                    }
-                } catch (Exception e) {
-                    // Skip problematic paragraphs
-                }
-            }
-            
-            // Scrape links
-            List<WebElement> links = driver.findElements(By.cssSelector("a[href]"));
-            for (WebElement link : links) {
-                try {
-                    String linkText = link.getText().trim();
-                    String href = link.getAttribute("href");
-                    
-                    if (!linkText.isEmpty() && href != null) {
-                        logScrapedData(sectionName, "link", "a", linkText, href, linkText, true, "");
-                    }
-                } catch (Exception e) {
-                    // Skip problematic links
-                }
-            }
-            
-            // Scrape images
-            List<WebElement> images = driver.findElements(By.cssSelector("img"));
-            for (WebElement image : images) {
-                try {
-                    String src = image.getAttribute("src");
-                    String alt = image.getAttribute("alt");
-                    
-                    if (src != null && !src.isEmpty()) {
-                        logScrapedData(sectionName, "image", "img", alt != null ? alt : "", src, src, true, "");
-                    }
-                } catch (Exception e) {
-                    // Skip problematic images
-                }
-            }
+            // Headings, paragraphs, links and images in a single script call
+            PageSnapshot snapshot = PageSnapshot.capture(driver);
+            snapshot.streamTo((pageUrl, item) -> logScrapedData(sectionName, item, pageUrl));
+            System.out.println("  ✓ Captured " + snapshot.getItems().size() + " items");
             
             // Take screenshot
             takeScreenshot(sectionName.replaceAll("[^a-zA-Z0-9]", "_"));
@@ -332,111 +310,93 @@ public class SystematicNavigationTester {
                 return;
             }
             
+            if (!breakers.allow(url)) {
+                return;
+            }
+            
             System.out.println("🌐 Navigating to: " + url);
-            driver.get(url);
-            wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+            long start = System.currentTimeMillis();
+            try {
+                driver.get(url);
+                wait.until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+            } catch (Exception e) {
+                breakers.record(url, false, System.currentTimeMillis() - start);
+                throw e;
+            }
+            breakers.record(url, true, System.currentTimeMillis() - start);
+            waits.pageSettled(Duration.ofSeconds(10));
+            performance.record(currentSection);
             
             // Handle overlays and popups
             closeOverlays();
             
             visitedUrls.add(url);
-            Thread.sleep(2000); // Allow page to settle
             
         } catch (Exception e) {
             System.err.println("❌ Error navigating to " + url + ": " + e.getMessage());
         }
     }
 
-    private static void testHoverAction(WebElement element, String actionType) {
-        try {
-            Actions actions = new Actions(driver);
-            actions.moveToElement(element).perform();
-            System.out.println("  ✓ Hover successful");
-            logTest("hover", actionType, element.getText(), "", "", true, "", driver.getCurrentUrl());
-            Thread.sleep(500);
-        } catch (Exception e) {
-            System.out.println("  ❌ Hover failed: " + e.getMessage());
-            logTest("hover", actionType, element.getText(), "", "", false, e.getMessage(), driver.getCurrentUrl());
+    // texts are what the caller already read, so logging needs no getText() round trip per element
+    private static void testHoverActions(List<WebElement> elements, List<String> texts, String actionType) {
+        if (elements.isEmpty()) {
+            return;
         }
-    }
-
-    private static void testClickAction(WebElement element, String actionType) {
-        try {
-            String currentUrl = driver.getCurrentUrl();
-            
-            // Try regular click first
-            try {
-                element.click();
-                System.out.println("  ✓ Click successful");
-                Thread.sleep(2000);
-                
-                String newUrl = driver.getCurrentUrl();
-                logTest("click", actionType, element.getText(), newUrl, "", true, "", currentUrl);
-                
-            } catch (Exception e) {
-                // Try JavaScript click
-                try {
-                    ((JavascriptExecutor) driver).executeScript("arguments[0].click();", element);
-                    System.out.println("  ✓ JavaScript click successful");
-                    Thread.sleep(2000);
-                    
-                    String newUrl = driver.getCurrentUrl();
-                    logTest("click", actionType + " (JS)", element.getText(), newUrl, "", true, "", currentUrl);
-                    
-                } catch (Exception jsE) {
-                    System.out.println("  ❌ Both click methods failed: " + jsE.getMessage());
-                    logTest("click", actionType, element.getText(), "", "", false, jsE.getMessage(), driver.getCurrentUrl());
-                }
+        List<HoverEngine.HoverResult> results = hoverEngine.hoverAll(elements);
+        String pageUrl = driver.getCurrentUrl();
+        for (int i = 0; i < results.size(); i++) {
+            HoverEngine.HoverResult result = results.get(i);
+            if (result.success) {
+                System.out.println("  ✓ Hover successful: '" + texts.get(i) + "' (" + result.describeEffect() + ")");
+                logTest("hover", actionType, texts.get(i), "", result.describeEffect(), true, "", pageUrl);
+            } else {
+                System.out.println("  ❌ Hover failed: '" + texts.get(i) + "' " + result.error);
+                logTest("hover", actionType, texts.get(i), "", "", false, result.error, pageUrl);
             }
-            
-        } catch (Exception e) {
-            System.out.println("  ❌ Click test failed: " + e.getMessage());
-            logTest("click", actionType, element.getText(), "", "", false, e.getMessage(), driver.getCurrentUrl());
         }
     }
 
-    private static void testClickAndNavigate(WebElement element, String actionType, String expectedUrl) {
+    private static void testClickAction(WebElement element, String actionType) {
         try {
             String currentUrl = driver.getCurrentUrl();
+            String href = element.getAttribute("href");
             
             // Try regular click first
             try {
                 element.click();
                 System.out.println("  ✓ Click successful");
-                Thread.sleep(3000);
+                waits.afterClick(currentUrl, Duration.ofSeconds(10));
+                performance.record(currentSection);
                 
                 String newUrl = driver.getCurrentUrl();
                 if (!newUrl.equals(currentUrl)) {
-                    System.out.println("  📍 URL changed: " + newUrl);
-                    navigateToPage(newUrl);
+                    breakers.recordNavigation(driver, href == null ? "" : href);
                 }
-                
-                logTest("click_navigate", actionType, element.getText(), newUrl, "", true, "", currentUrl);
+                logTest("click", actionType, element.getText(), newUrl, "", true, "", currentUrl);
                 
             } catch (Exception e) {
                 // Try JavaScript click
                 try {
                     ((JavascriptExecutor) driver).executeScript("arguments[0].click();", element);
                     System.out.println("  ✓ JavaScript click successful");
-                    Thread.sleep(3000);
+                    waits.afterClick(currentUrl, Duration.ofSeconds(10));
+                    performance.record(currentSection);
                     
                     String newUrl = driver.getCurrentUrl();
                     if (!newUrl.equals(currentUrl)) {
-                        System.out.println("  📍 URL changed: " + newUrl);
-                        navigateToPage(newUrl);
+                        breakers.recordNavigation(driver, href == null ? "" : href);
                     }
-                    
-                    logTest("click_navigate", actionType + " (JS)", element.getText(), newUrl, "", true, "", currentUrl);
+                    logTest("click", actionType + " (JS)", element.getText(), newUrl, "", true, "", currentUrl);
                     
                 } catch (Exception jsE) {
                     System.out.println("  ❌ Both click methods failed: " + jsE.getMessage());
-                    logTest("click_navigate", actionType, element.getText(), "", "", false, jsE.getMessage(), driver.getCurrentUrl());
+                    logTest("click", actionType, element.getText(), "", "", false, jsE.getMessage(), driver.getCurrentUrl());
                 }
             }
             
         } catch (Exception e) {
-            System.out.println("  ❌ Click and navigate test failed: " + e.getMessage());
-            logTest("click_navigate", actionType, element.getText(), "", "", false, e.getMessage(), driver.getCurrentUrl());
+            System.out.println("  ❌ Click test failed: " + e.getMessage());
+            logTest("click", actionType, element.getText(), "", "", false, e.getMessage(), driver.getCurrentUrl());
         }
     }
 
@@ -465,23 +425,16 @@ public class SystematicNavigationTester {
 
     private static void closeOverlays() {
         try {
-            List<By> overlaySelectors = List.of(
-                By.cssSelector("button[aria-label='Close']"),
-                By.cssSelector(".modal .close, .modal .close-btn"),
-                By.cssSelector(".overlay .close, .overlay .close-btn"),
-                By.cssSelector("#onetrust-accept-btn-handler"),
-                By.cssSelector(".cookie, .cookies, .cookie-banner button"),
-                By.cssSelector("[data-test*='close'], [data-testid*='close']"),
-                By.cssSelector(".popup-close, .banner-close")
-            );
-            
-            for (By selector : overlaySelectors) {
+            PageModel model = PageModel.capture(driver);
+            for (By selector : Main.OVERLAY_SELECTORS) {
                 try {
-                    List<WebElement> elements = driver.findElements(selector);
+                    List<WebElement> elements = model.find(selector);
                     for (WebElement element : elements) {
-                        if (element.isDisplayed() && element.isEnabled()) {
+                        if (model.isVisible(element) && model.isEnabled(element)) {
                             element.click();
-                            Thread.sleep(1000);
+                            waits.domQuiet(Duration.ofMillis(300), Duration.ofSeconds(2));
+                            // The click changed the page, so later selectors need a fresh snapshot
+                            model = PageModel.capture(driver);
                             break;
                         }
                     }
@@ -514,38 +467,44 @@ public class SystematicNavigationTester {
                 "", // section
                 elementType,
                 action,
-                elementText.length() > 100 ? elementText.substring(0, 100) + "..." : elementText,
-                elementUrl.length() > 100 ? elementUrl.substring(0, 100) + "..." : elementUrl,
-                scrapedData.length() > 100 ? scrapedData.substring(0, 100) + "..." : scrapedData,
+                truncation.apply(elementText),
+                truncation.apply(elementUrl),
+                truncation.apply(scrapedData),
                 String.valueOf(success),
                 error,
                 currentUrl,
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
             };
             csvWriter.writeNext(row);
+            if (dbTable != null) {
+                dbTable.write(row);
+            }
             csvWriter.flush();
         } catch (Exception e) {
             System.err.println("Error logging test: " + e.getMessage());
         }
     }
 
-    private static void logScrapedData(String section, String elementType, String tagName, String elementText, String elementUrl, String scrapedData, boolean success, String error) {
+    private static void logScrapedData(String section, PageSnapshot.Item item, String pageUrl) {
         try {
             testCount++;
             String[] row = {
                 String.valueOf(testCount),
                 section,
-                elementType,
+                item.kind.name().toLowerCase(),
                 "scrape",
-                elementText.length() > 100 ? elementText.substring(0, 100) + "..." : elementText,
-                elementUrl.length() > 100 ? elementUrl.substring(0, 100) + "..." : elementUrl,
-                scrapedData.length() > 100 ? scrapedData.substring(0, 100) + "..." : scrapedData,
-                String.valueOf(success),
-                error,
-                driver.getCurrentUrl(),
+                truncation.apply(item.text),
+                truncation.apply(item.url),
+                truncation.apply(item.data),
+                "true",
+                "",
+                pageUrl,
                 LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"))
             };
             csvWriter.writeNext(row);
+            if (dbTable != null) {
+                dbTable.write(row);
+            }
             csvWriter.flush();
         } catch (Exception e) {
             System.err.println("Error logging scraped data: " + e.getMessage());
@@ -553,6 +512,14 @@ public class SystematicNavigationTester {
     }
 
     private static void cleanup() {
+        if (waits != null) {
+            waits.printStats();
+        }
+        breakers.printStats();
+        if (performance != null) {
+            performance.close();
+        }
+        
         try {
             if (csvWriter != null) {
                 csvWriter.close();
@@ -562,6 +529,14 @@ public class SystematicNavigationTester {
             System.err.println("Error closing CSV: " + e.getMessage());
         }
         
+        if (networkArchive != null) {
+            networkArchive.close();
+        }
+        
+        if (database != null) {
+            database.close();
+        }
+        
         if (driver != null) {
             driver.quit();
             System.out.println("✓ WebDriver closed successfully");
@@ -0,0 +1,319 @@
+package app;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.SeleniumCdpConnection;
+import org.openqa.selenium.devtools.idealized.target.model.SessionID;
+import org.openqa.selenium.json.Json;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BiFunction;
+
+// Tabs of the one Chrome process, each driven over its own flattened CDP session so they never wait on switchTo()
+public class TabPool implements AutoCloseable {
+    private static final long DEFAULT_TAB_MB = 250;
+    private static final int MAX_AUTO_TABS = 8;
+
+    // Resolves once the document has loaded and the DOM has been quiet for quietMs, or after timeoutMs
+    private static final String SETTLE_EXPRESSION =
+        "new Promise(function(resolve) {" +
+        "  var quiet = %d, timeout = %d, start = Date.now(), last = Date.now();" +
+        "  var observer = new MutationObserver(function() { last = Date.now(); });" +
+        "  function watch() {" +
+        "    observer.observe(document.documentElement, {childList: true, subtree: true, attributes: true});" +
+        "    (function check() {" +
+        "      var now = Date.now();" +
+        "      if (now - last >= quiet || now - start >= timeout) { observer.disconnect(); resolve(now - last >= quiet); }" +
+        "      else setTimeout(check, 50);" +
+        "    })();" +
+        "  }" +
+        "  if (document.readyState === 'complete') watch(); else window.addEventListener('load', function() { last = Date.now(); watch(); });" +
+        "  setTimeout(function() { resolve(false); }, timeout);" +
+        "})";
+
+    // Scrolls to the bottom until the height stops growing, waiting for the DOM to go quiet after each scroll, then back
+    // to the top; false when the deadline cut it short
+    private static final String SCROLL_EXPRESSION =
+        "new Promise(function(resolve) {" +
+        "  var max = %d, deadline = Date.now() + %d, scrolls = 0, last = -1;" +
+        "  function step() {" +
+        "    var height = document.body.scrollHeight;" +
+        "    if (height === last || scrolls >= max || Date.now() >= deadline) {" +
+        "      window.scrollTo(0, 0); resolve(Date.now() < deadline); return;" +
+        "    }" +
+        "    last = height; scrolls++;" +
+        "    window.scrollTo(0, height);" +
+        "    var start = Date.now(), quietSince = Date.now();" +
+        "    var observer = new MutationObserver(function() { quietSince = Date.now(); });" +
+        "    observer.observe(document.documentElement, {childList: true, subtree: true});" +
+        "    (function check() {" +
+        "      var now = Date.now();" +
+        "      if (now - quietSince >= 300 || now - start >= 3000 || now >= deadline) { observer.disconnect(); step(); }" +
+        "      else setTimeout(check, 50);" +
+        "    })();" +
+        "  }" +
+        "  step();" +
+        "})";
+
+    // Clicks the first visible, enabled element of the first locator that has one
+    private static final String CLICK_FIRST_EXPRESSION =
+        "(function(locators) {" +
+        "  function q(l) {" +
+        "    if (l.using === 'xpath') {" +
+        "      var r = document.evaluate(l.value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), a = [];" +
+        "      for (var i = 0; i < r.snapshotLength; i++) a.push(r.snapshotItem(i));" +
+        "      return a;" +
+        "    }" +
+        "    return Array.prototype.slice.call(document.querySelectorAll(l.value));" +
+        "  }" +
+        "  for (var i = 0; i < locators.length; i++) {" +
+        "    var found;" +
+        "    try { found = q(locators[i]); } catch (e) { continue; }" +
+        "    for (var j = 0; j < found.length; j++) {" +
+        "      var el = found[j], r = el.getBoundingClientRect(), style = getComputedStyle(el);" +
+        "      if (r.width > 0 && r.height > 0 && style.visibility !== 'hidden' && !el.disabled) { el.click(); return true; }" +
+        "    }" +
+        "  }" +
+        "  return false;" +
+        "})(%s)";
+
+    private static final Json JSON = new Json();
+
+    private final Connection connection;
+    private final List<Tab> tabs = new ArrayList<>();
+    private final LinkedBlockingQueue<Tab> idle = new LinkedBlockingQueue<>();
+    private final ExecutorService workers;
+
+    public TabPool(WebDriver driver, int size) {
+        this.connection = SeleniumCdpConnection.create(driver)
+            .orElseThrow(() -> new IllegalStateException("Browser has no CDP endpoint"));
+        this.workers = Executors.newFixedThreadPool(Math.max(1, size));
+        try {
+            for (int i = 0; i < Math.max(1, size); i++) {
+                Map<String, Object> target = browser("Target.createTarget", Map.of("url", "about:blank", "background", true));
+                String targetId = String.valueOf(target.get("targetId"));
+                Map<String, Object> attached = browser("Target.attachToTarget", Map.of("targetId", targetId, "flatten", true));
+                Tab tab = new Tab(targetId, new SessionID(String.valueOf(attached.get("sessionId"))));
+                tabs.add(tab);
+                // Background tabs otherwise get throttled timers, which would stretch every settle wait
+                tab.send("Emulation.setFocusEmulationEnabled", Map.of("enabled", true), Duration.ofSeconds(5));
+                idle.add(tab);
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+        System.out.println("✓ Tab pool: " + tabs.size() + " tabs in one browser");
+    }
+
+    // -Dtabs=N for a fixed size, -Dtabs=auto to size by available memory; 0 (default) keeps a single tab
+    public static int sizeFromProperties() {
+        String configured = System.getProperty("tabs", "0").trim();
+        if (!"auto".equalsIgnoreCase(configured)) {
+            try {
+                return Math.max(0, Integer.parseInt(configured));
+            } catch (NumberFormatException e) {
+                System.err.println("⚠️ Ignoring -Dtabs=" + configured);
+                return 0;
+            }
+        }
+        long perTabMb = Long.getLong("tabs.perTabMb", DEFAULT_TAB_MB);
+        long availableMb = availableMemoryMb();
+        int size = availableMb < 0 ? 2 : (int) Math.max(1, Math.min(MAX_AUTO_TABS, availableMb / 2 / perTabMb));
+        System.out.println("✓ Tab pool sized to " + size + " (" + (availableMb < 0 ? "memory unknown" : availableMb + " MB available")
+                           + ", ~" + perTabMb + " MB per tab, half kept free)");
+        return size;
+    }
+
+    // MemAvailable from /proc/meminfo; -1 where there is no /proc
+    static long availableMemoryMb() {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc/meminfo"))) {
+                if (line.startsWith("MemAvailable:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) / 1024;
+                }
+            }
+        } catch (Exception e) {
+            // Not Linux
+        }
+        return -1;
+    }
+
+    public int size() {
+        return tabs.size();
+    }
+
+    public class Tab {
+        final String targetId;
+        final SessionID session;
+
+        Tab(String targetId, SessionID session) {
+            this.targetId = targetId;
+            this.session = session;
+        }
+
+        Map<String, Object> send(String method, Map<String, Object> params, Duration timeout) {
+            return connection.sendAndWait(session, new Command<Map<String, Object>>(method, params, Json.MAP_TYPE), timeout);
+        }
+
+        // Loads the URL and waits for it to settle; false when it failed or only partly loaded
+        public boolean navigate(String url, Duration timeout) {
+            long deadline = System.currentTimeMillis() + timeout.toMillis();
+            Map<String, Object> result = send("Page.navigate", Map.of("url", url), timeout);
+            if (result.get("errorText") != null) {
+                throw new IllegalStateException(String.valueOf(result.get("errorText")));
+            }
+            return settle(Duration.ofMillis(Math.max(500, deadline - System.currentTimeMillis())));
+        }
+
+        public boolean settle(Duration timeout) {
+            try {
+                return Boolean.TRUE.equals(evaluate(String.format(SETTLE_EXPRESSION, 300, timeout.toMillis()),
+                                                    timeout.plusSeconds(1)));
+            } catch (Exception e) {
+                // Navigated again mid-wait
+                return false;
+            }
+        }
+
+        // Polls location.href until it leaves fromUrl; "" when it never did
+        public String urlChange(String fromUrl, Duration timeout) {
+            long deadline = System.currentTimeMillis() + timeout.toMillis();
+            do {
+                try {
+                    String url = url();
+                    if (!fromUrl.equals(url)) {
+                        return url;
+                    }
+                } catch (Exception e) {
+                    // Context torn down by the navigation we are waiting for
+                }
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            } while (System.currentTimeMillis() < deadline);
+            return "";
+        }
+
+        // The expression's value, or its promise's value; page exceptions become IllegalStateException
+        @SuppressWarnings("unchecked")
+        public Object evaluate(String expression, Duration timeout) {
+            Map<String, Object> result = send("Runtime.evaluate", Map.of(
+                "expression", expression, "returnByValue", true, "awaitPromise", true), timeout);
+            if (result.get("exceptionDetails") != null) {
+                Map<String, Object> details = (Map<String, Object>) result.get("exceptionDetails");
+                Object exception = details.get("exception");
+                throw new IllegalStateException(exception instanceof Map
+                    ? String.valueOf(((Map<String, Object>) exception).get("description"))
+                    : String.valueOf(details.get("text")));
+            }
+            Map<String, Object> value = (Map<String, Object>) result.get("result");
+            return value == null ? null : value.get("value");
+        }
+
+        public String url() {
+            return String.valueOf(evaluate("location.href", Duration.ofSeconds(5)));
+        }
+
+        // Lazy loading, as Main's scroll phase does it, at most maxScrolls times
+        public boolean scrollToEnd(int maxScrolls, Duration timeout) {
+            return Boolean.TRUE.equals(evaluate(String.format(SCROLL_EXPRESSION, maxScrolls, timeout.toMillis()),
+                                                timeout.plusSeconds(1)));
+        }
+
+        // The page's own click() on the first visible match, e.g. an overlay's close button or a "Next" link
+        public boolean clickFirstVisible(List<By> locators, Duration timeout) {
+            return Boolean.TRUE.equals(evaluate(clickFirstVisibleExpression(locators), timeout));
+        }
+
+        // A trusted mouse click at viewport coordinates, as the user would make it
+        public void clickAt(double x, double y) {
+            for (String type : List.of("mousePressed", "mouseReleased")) {
+                send("Input.dispatchMouseEvent", Map.of(
+                    "type", type, "x", x, "y", y, "button", "left", "clickCount", 1), Duration.ofSeconds(5));
+            }
+        }
+    }
+
+    // True when it clicked something; also runs through WebDriver as "return " + expression
+    static String clickFirstVisibleExpression(List<By> locators) {
+        List<Map<String, Object>> params = new ArrayList<>();
+        for (By by : locators) {
+            Map<String, Object> locator = by instanceof By.Remotable ? PageModel.remoteParameters((By.Remotable) by) : null;
+            if (locator != null) {
+                params.add(locator);
+            }
+        }
+        return String.format(CLICK_FIRST_EXPRESSION, JSON.toJson(params));
+    }
+
+    // Runs task(tab, input) for every input, each on whichever tab is free; results keep the input order, one per input,
+    // with failed(input, error) standing in for a task that threw or never ran
+    public <I, T> List<T> map(List<I> inputs, BiFunction<Tab, I, T> task, BiFunction<I, Throwable, T> failed) {
+        List<Future<T>> futures = new ArrayList<>();
+        for (I input : inputs) {
+            futures.add(workers.submit(() -> {
+                Tab tab = idle.take();
+                try {
+                    return task.apply(tab, input);
+                } finally {
+                    idle.add(tab);
+                }
+            }));
+        }
+        List<T> results = new ArrayList<>();
+        for (int i = 0; i < futures.size(); i++) {
+            Future<T> future = futures.get(i);
+            if (Thread.currentThread().isInterrupted()) {
+                future.cancel(true);
+                results.add(failed.apply(inputs.get(i), new InterruptedException("Interrupted before it ran")));
+                continue;
+            }
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                results.add(failed.apply(inputs.get(i), e));
+            } catch (ExecutionException e) {
+                // Tasks handle their own errors; anything that escapes fails that input rather than the batch
+                results.add(failed.apply(inputs.get(i), e.getCause()));
+            } catch (Exception e) {
+                results.add(failed.apply(inputs.get(i), e));
+            }
+        }
+        return results;
+    }
+
+    private Map<String, Object> browser(String method, Map<String, Object> params) {
+        return connection.sendAndWait(null, new Command<Map<String, Object>>(method, params, Json.MAP_TYPE), Duration.ofSeconds(10));
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+        for (Tab tab : tabs) {
+            try {
+                browser("Target.closeTarget", Map.of("targetId", tab.targetId));
+            } catch (Exception e) {
+                // Browser already gone
+            }
+        }
+        connection.close();
+    }
+}
@@ -0,0 +1,32 @@
+package app;
+
+public class TruncationPolicy {
+    private final int maxLength;
+
+    private TruncationPolicy(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    public static TruncationPolicy none() {
+        return new TruncationPolicy(0);
+    }
+
+    public static TruncationPolicy maxLength(int maxLength) {
+        return new TruncationPolicy(Math.max(0, maxLength));
+    }
+
+    // -D<property>=0 keeps full values, any positive number caps them with "..."
+    public static TruncationPolicy fromProperty(String property, int defaultLength) {
+        return maxLength(Integer.getInteger(property, defaultLength));
+    }
+
+    public String apply(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (maxLength == 0 || value.length() <= maxLength) {
+            return value;
+        }
+        return value.substring(0, maxLength) + "...";
+    }
+}
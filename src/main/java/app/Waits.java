@@ -0,0 +1,224 @@
+package app;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+// Readiness waits that return as soon as the page is ready, recording how long each one actually took
+public class Waits {
+    private static final long POLL_MS = 50;
+    // Long-polls and streams never finish; past this age a request no longer holds up idleness
+    private static final long STALE_REQUEST_MS = 10_000;
+
+    // Resolves once no mutation has been seen for the quiet period, or when the timeout passes
+    private static final String DOM_QUIET_SCRIPT =
+        "var quiet = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];" +
+        "var start = Date.now(), last = Date.now();" +
+        "var observer = new MutationObserver(function() { last = Date.now(); });" +
+        "observer.observe(document.documentElement, {childList: true, subtree: true, attributes: true, characterData: true});" +
+        "(function check() {" +
+        "  var now = Date.now();" +
+        "  if (now - last >= quiet || now - start >= timeout) { observer.disconnect(); done(now - last >= quiet); }" +
+        "  else setTimeout(check, 50);" +
+        "})();";
+
+    // Resolves once the element's box is unchanged across two animation frames
+    private static final String STABLE_SCRIPT =
+        "var el = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];" +
+        "var start = Date.now(), last = null, same = 0;" +
+        "function box() { var r = el.getBoundingClientRect(); return [r.x, r.y, r.width, r.height].join(','); }" +
+        "function visible() {" +
+        "  var s = getComputedStyle(el), r = el.getBoundingClientRect();" +
+        "  return r.width > 0 && r.height > 0 && s.visibility !== 'hidden' && s.display !== 'none' && s.opacity !== '0';" +
+        "}" +
+        "(function frame() {" +
+        "  if (!el.isConnected) { done(false); return; }" +
+        "  var b = box();" +
+        "  same = b === last ? same + 1 : 0; last = b;" +
+        "  if (same >= 2 && visible()) done(true);" +
+        "  else if (Date.now() - start >= timeout) done(false);" +
+        "  else requestAnimationFrame(frame);" +
+        "})();";
+
+    private final WebDriver driver;
+    private final Map<String, Long> inflight = new ConcurrentHashMap<>();
+    private volatile long lastNetworkActivity = System.currentTimeMillis();
+    private final boolean networkTracked;
+    private final Map<String, long[]> stats = new TreeMap<>();
+
+    public Waits(WebDriver driver) {
+        this.driver = driver;
+        this.networkTracked = trackNetwork();
+    }
+
+    private boolean trackNetwork() {
+        if (!(driver instanceof HasDevTools)) {
+            return false;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            devTools.send(new Command<>("Network.enable", Map.of()));
+            devTools.addListener(NetworkCapture.mapEvent("Network.requestWillBeSent"), event -> {
+                inflight.put(String.valueOf(event.get("requestId")), System.currentTimeMillis());
+                lastNetworkActivity = System.currentTimeMillis();
+            });
+            devTools.addListener(NetworkCapture.mapEvent("Network.loadingFinished"), event -> finished(event));
+            devTools.addListener(NetworkCapture.mapEvent("Network.loadingFailed"), event -> finished(event));
+            return true;
+        } catch (Exception e) {
+            System.err.println("⚠️ Network idle tracking unavailable: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void finished(Map<String, Object> event) {
+        inflight.remove(String.valueOf(event.get("requestId")));
+        lastNetworkActivity = System.currentTimeMillis();
+    }
+
+    // At most maxInflight requests open for the whole quiet period; counted locally, no round trips
+    public boolean networkIdle(int maxInflight, Duration quiet, Duration timeout) {
+        if (!networkTracked) {
+            return domQuiet(quiet, timeout);
+        }
+        long start = System.currentTimeMillis();
+        long idleSince = -1;
+        boolean met = false;
+        while (System.currentTimeMillis() - start < timeout.toMillis()) {
+            long now = System.currentTimeMillis();
+            if (openRequests(now) <= maxInflight) {
+                if (idleSince < 0) {
+                    idleSince = Math.max(now - quiet.toMillis(), lastNetworkActivity);
+                }
+                if (now - idleSince >= quiet.toMillis()) {
+                    met = true;
+                    break;
+                }
+            } else {
+                idleSince = -1;
+            }
+            sleep(POLL_MS);
+        }
+        return record("network_idle", start, met);
+    }
+
+    private int openRequests(long now) {
+        inflight.values().removeIf(started -> now - started > STALE_REQUEST_MS);
+        return inflight.size();
+    }
+
+    public boolean domQuiet(Duration quiet, Duration timeout) {
+        long start = System.currentTimeMillis();
+        boolean met = false;
+        try {
+            met = Boolean.TRUE.equals(((JavascriptExecutor) driver).executeAsyncScript(
+                DOM_QUIET_SCRIPT, quiet.toMillis(), timeout.toMillis()));
+        } catch (Exception e) {
+            // Navigated away mid-wait: the new document is what the caller waits on next
+        }
+        return record("dom_quiet", start, met);
+    }
+
+    public boolean urlChange(String fromUrl, Duration timeout) {
+        long start = System.currentTimeMillis();
+        boolean met = poll(timeout, () -> !fromUrl.equals(driver.getCurrentUrl()));
+        return record("url_change", start, met);
+    }
+
+    public boolean documentReady(Duration timeout) {
+        long start = System.currentTimeMillis();
+        boolean met = poll(timeout, () ->
+            "complete".equals(((JavascriptExecutor) driver).executeScript("return document.readyState")));
+        return record("document_ready", start, met);
+    }
+
+    public boolean elementStable(WebElement element, Duration timeout) {
+        long start = System.currentTimeMillis();
+        boolean met = false;
+        try {
+            met = Boolean.TRUE.equals(((JavascriptExecutor) driver).executeAsyncScript(
+                STABLE_SCRIPT, element, timeout.toMillis()));
+        } catch (Exception e) {
+            // Stale or detached element counts as not stable
+        }
+        return record("element_stable", start, met);
+    }
+
+    // After driver.get(): loaded, network settled and rendering quiet
+    public boolean pageSettled(Duration timeout) {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        boolean ready = documentReady(remaining(deadline));
+        boolean idle = networkIdle(2, Duration.ofMillis(500), remaining(deadline));
+        boolean quiet = domQuiet(Duration.ofMillis(300), remaining(deadline));
+        return ready && idle && quiet;
+    }
+
+    // After a click: a navigation is waited out like a page load, anything else until the DOM is quiet
+    public boolean afterClick(String previousUrl, Duration timeout) {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        if (urlChange(previousUrl, Duration.ofMillis(Math.min(1000, timeout.toMillis())))) {
+            return pageSettled(remaining(deadline));
+        }
+        return domQuiet(Duration.ofMillis(300), remaining(deadline));
+    }
+
+    private boolean poll(Duration timeout, BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + timeout.toMillis();
+        do {
+            try {
+                if (condition.getAsBoolean()) {
+                    return true;
+                }
+            } catch (Exception e) {
+                // Mid-navigation errors just mean "not yet"
+            }
+            sleep(POLL_MS);
+        } while (System.currentTimeMillis() < deadline);
+        return false;
+    }
+
+    private static Duration remaining(long deadline) {
+        return Duration.ofMillis(Math.max(0, deadline - System.currentTimeMillis()));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // stats per wait kind: count, total ms, max ms, timeouts
+    private synchronized boolean record(String kind, long start, boolean met) {
+        long elapsed = System.currentTimeMillis() - start;
+        long[] s = stats.computeIfAbsent(kind, k -> new long[4]);
+        s[0]++;
+        s[1] += elapsed;
+        s[2] = Math.max(s[2], elapsed);
+        if (!met) {
+            s[3]++;
+        }
+        return met;
+    }
+
+    public synchronized void printStats() {
+        System.out.println("Waits:");
+        for (Map.Entry<String, long[]> entry : stats.entrySet()) {
+            long[] s = entry.getValue();
+            System.out.println("  " + entry.getKey() + ": " + s[0] + " waits, " + s[1] + " ms total, "
+                               + (s[0] == 0 ? 0 : s[1] / s[0]) + " ms average, " + s[2] + " ms max, "
+                               + s[3] + " timed out");
+        }
+    }
+}